@@ -0,0 +1,199 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.benchmark;
+
+import static org.easymock.EasyMock.anyInt;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+
+import com.esri.core.geometry.MapGeometry;
+import com.esri.core.geometry.Point;
+import com.esri.core.geometry.SpatialReference;
+import com.esri.geoevent.processor.vesselshapegenerator.VesselShapeGeneratorProcessor;
+import com.esri.geoevent.processor.vesselshapegenerator.VesselShapeGeneratorProcessorDefinition;
+import com.esri.geoevent.processor.vesselshapegenerator.model.Factor;
+import com.esri.geoevent.processor.vesselshapegenerator.model.Parser;
+import com.esri.geoevent.processor.vesselshapegenerator.model.Shape;
+import com.esri.geoevent.processor.vesselshapegenerator.model.ShapeTemplate;
+import com.esri.geoevent.processor.vesselshapegenerator.provider.Provider;
+import com.esri.geoevent.processor.vesselshapegenerator.provider.ProviderListener;
+import com.esri.geoevent.processor.vesselshapegenerator.provider.ProviderSnapshot;
+import com.esri.geoevent.processor.vesselshapegenerator.provider.ShapeCatalog;
+import com.esri.ges.core.geoevent.FieldDefinition;
+import com.esri.ges.core.geoevent.GeoEvent;
+import com.esri.ges.core.geoevent.GeoEventDefinition;
+import com.esri.ges.core.property.Property;
+import com.esri.ges.processor.GeoEventProcessorDefinition;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.easymock.IAnswer;
+
+/**
+ * Shared benchmark fixtures.
+ */
+final class BenchmarkSupport {
+
+  /** Starboard side factors of the default shape (model/default.json). */
+  static final double[][] DEFAULT_FACTORS = {
+    {0.005, 0.088}, {0.008, 0.123}, {0.022, 0.203}, {0.045, 0.281}, {0.073, 0.357},
+    {0.108, 0.431}, {0.150, 0.5}, {0.99, 0.5}, {0.995, 0.35}, {1.0, 0.2}
+  };
+
+  static final double SHIP_LENGTH = 180.0;
+  static final double SHIP_WIDTH = 28.0;
+  static final double HEADING = 37.0;
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private BenchmarkSupport() {}
+
+  /**
+   * Builds JSON catalog of the default shape under types "0" to size-1.
+   */
+  static byte[] catalogJson(int size) {
+    StringBuilder sb = new StringBuilder("[");
+    for (int type = 0; type < size; type++) {
+      sb.append(type > 0 ? ",\n" : "\n").append("{\"type\":\"").append(type).append("\",\"starboardSide\":[");
+      for (int i = 0; i < DEFAULT_FACTORS.length; i++) {
+        sb.append(i > 0 ? "," : "").append("{\"x\":").append(DEFAULT_FACTORS[i][0]).append(",\"y\":").append(DEFAULT_FACTORS[i][1]).append('}');
+      }
+      sb.append("],\"portSide\":[");
+      for (int i = DEFAULT_FACTORS.length - 1; i >= 0; i--) {
+        sb.append(i < DEFAULT_FACTORS.length - 1 ? "," : "").append("{\"x\":").append(DEFAULT_FACTORS[i][0]).append(",\"y\":").append(DEFAULT_FACTORS[i][1]).append('}');
+      }
+      sb.append("]}");
+    }
+    return sb.append("\n]").toString().getBytes(UTF8);
+  }
+
+  static Map<String, ShapeTemplate> parseCatalog(int size) throws IOException {
+    return new Parser().parse(new ByteArrayInputStream(catalogJson(size)));
+  }
+
+  static ShapeCatalog shapeCatalog(int size) throws IOException {
+    final ProviderSnapshot snapshot = ProviderSnapshot.EMPTY.next(parseCatalog(size));
+    Provider provider = new Provider() {
+      @Override
+      public ProviderSnapshot getSnapshot() {
+        return snapshot;
+      }
+
+      @Override
+      public void addListener(ProviderListener listener) {
+      }
+
+      @Override
+      public void removeListener(ProviderListener listener) {
+      }
+    };
+    return new ShapeCatalog(Collections.singletonList(provider));
+  }
+
+  static Shape defaultShape() {
+    Shape shape = new Shape();
+    shape.type = "0";
+    shape.starboardSide = new ArrayList<>();
+    shape.portSide = new ArrayList<>();
+    for (double[] f : DEFAULT_FACTORS) {
+      shape.starboardSide.add(factor(f[0], f[1]));
+      shape.portSide.add(0, factor(f[0], f[1]));
+    }
+    return shape;
+  }
+
+  /**
+   * Web Mercator Y of the latitude.
+   */
+  static double mercatorY(double latitude) {
+    return Math.log(Math.tan(Math.PI / 4 + Math.toRadians(latitude) / 2)) * 6378137.0;
+  }
+
+  /**
+   * Creates processor with the given property values, bypassing the
+   * GeoEvent Server property injection.
+   */
+  static VesselShapeGeneratorProcessor processor(ShapeCatalog catalog, Map<String, Object> values) throws Exception {
+    VesselShapeGeneratorProcessor processor = new BenchmarkProcessor(new VesselShapeGeneratorProcessorDefinition(), catalog, values);
+    processor.afterPropertiesSet();
+    return processor;
+  }
+
+  /**
+   * Stubs AIS position report; the definition is the processor's own
+   * VesselFeed definition. Field reads go through an EasyMock answer, which
+   * adds a small constant allocation per read to the measured rate.
+   */
+  static GeoEvent vesselEvent(double longitude, double latitude) throws Exception {
+    GeoEventDefinition vesselFeed = new VesselShapeGeneratorProcessorDefinition().getGeoEventDefinitions().get("VesselFeed");
+    List<FieldDefinition> fields = vesselFeed.getFieldDefinitions();
+
+    GeoEventDefinition definition = createNiceMock(GeoEventDefinition.class);
+    expect(definition.getGuid()).andStubReturn("benchmark-vessel-feed");
+    expect(definition.getName()).andStubReturn("VesselFeed");
+    expect(definition.getFieldDefinitions()).andStubReturn(fields);
+    replay(definition);
+
+    final MapGeometry geometry = new MapGeometry(new Point(longitude, latitude), SpatialReference.create(4326));
+    final Object[] values = {
+      366999712L, geometry, new java.util.Date(), "BENCHMARK", 70, HEADING, 150, 14, 14, 30
+    };
+
+    GeoEvent event = createNiceMock(GeoEvent.class);
+    expect(event.getGeoEventDefinition()).andStubReturn(definition);
+    expect(event.getGeometry()).andStubReturn(geometry);
+    expect(event.getField(anyInt())).andStubAnswer(new IAnswer<Object>() {
+      @Override
+      public Object answer() throws Throwable {
+        return values[(Integer) getCurrentArguments()[0]];
+      }
+    });
+    expect(event.getAllFields()).andStubReturn(values);
+    replay(event);
+    return event;
+  }
+
+  private static Factor factor(double x, double y) {
+    Factor factor = new Factor();
+    factor.x = x;
+    factor.y = y;
+    return factor;
+  }
+
+  private static final class BenchmarkProcessor extends VesselShapeGeneratorProcessor {
+
+    BenchmarkProcessor(GeoEventProcessorDefinition definition, ShapeCatalog catalog, Map<String, Object> values) throws Exception {
+      super(definition, catalog, null, null);
+      for (Map.Entry<String, Object> e : values.entrySet()) {
+        properties.put(e.getKey(), new Property(definition.getPropertyDefinitions().get(e.getKey()), e.getValue()));
+      }
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.benchmark;
+
+import com.esri.core.geometry.Point;
+import com.esri.core.geometry.Polygon;
+import com.esri.geoevent.processor.vesselshapegenerator.GeometryUtility;
+import com.esri.geoevent.processor.vesselshapegenerator.model.Shape;
+import com.esri.geoevent.processor.vesselshapegenerator.model.ShapeTemplate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link GeometryUtility} hull generation and ratio benchmarks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+
+  @Param({"0", "45", "70"})
+  public double latitude;
+
+  private Point center;
+  private Shape shape;
+  private ShapeTemplate template;
+  private double[] coords;
+
+  @Setup
+  public void setup() {
+    center = new Point(1391493.0, BenchmarkSupport.mercatorY(latitude));
+    shape = BenchmarkSupport.defaultShape();
+    template = ShapeTemplate.compile(shape);
+    coords = new double[template.getVertexCount() * 2];
+  }
+
+  @Benchmark
+  public Polygon generateVesselShape() {
+    return GeometryUtility.generateVesselShape(center, BenchmarkSupport.SHIP_WIDTH, BenchmarkSupport.SHIP_LENGTH, BenchmarkSupport.HEADING);
+  }
+
+  @Benchmark
+  public Polygon generateVesselShapeFromShape() {
+    return GeometryUtility.generateVesselShape(center, BenchmarkSupport.SHIP_WIDTH, BenchmarkSupport.SHIP_LENGTH, BenchmarkSupport.HEADING, shape);
+  }
+
+  @Benchmark
+  public Polygon generateVesselShapeFromTemplate() {
+    double ratio = GeometryUtility.calculateRation(center, BenchmarkSupport.SHIP_LENGTH);
+    int count = GeometryUtility.generateVesselShape(center.getX(), center.getY(), BenchmarkSupport.SHIP_WIDTH, BenchmarkSupport.SHIP_LENGTH,
+        BenchmarkSupport.HEADING, ratio, template, coords);
+    return GeometryUtility.toPolygon(coords, count);
+  }
+
+  @Benchmark
+  public double calculateRation() {
+    return GeometryUtility.calculateRation(center, BenchmarkSupport.SHIP_LENGTH);
+  }
+}
@@ -0,0 +1,84 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.benchmark;
+
+import com.esri.geoevent.processor.vesselshapegenerator.model.BinaryCatalog;
+import com.esri.geoevent.processor.vesselshapegenerator.model.Parser;
+import com.esri.geoevent.processor.vesselshapegenerator.model.ShapeTemplate;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Shape catalog loading benchmarks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+  @Param({"1", "100", "10000"})
+  public int catalogSize;
+
+  private final Parser parser = new Parser();
+  private byte[] json;
+  private ByteBuffer binary;
+
+  @Setup
+  public void setup() throws IOException {
+    json = BenchmarkSupport.catalogJson(catalogSize);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryCatalog.write(BenchmarkSupport.parseCatalog(catalogSize), out);
+    binary = ByteBuffer.allocateDirect(out.size());
+    binary.put(out.toByteArray());
+    binary.flip();
+  }
+
+  @Benchmark
+  public Map<String, ShapeTemplate> parse() throws IOException {
+    return parser.parse(new ByteArrayInputStream(json));
+  }
+
+  @Benchmark
+  public Map<String, ShapeTemplate> readBinary() throws IOException {
+    return BinaryCatalog.read(binary);
+  }
+}
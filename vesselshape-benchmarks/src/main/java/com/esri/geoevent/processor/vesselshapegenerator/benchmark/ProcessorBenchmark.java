@@ -0,0 +1,78 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.benchmark;
+
+import com.esri.geoevent.processor.vesselshapegenerator.VesselShapeGeneratorProcessor;
+import com.esri.ges.core.geoevent.GeoEvent;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End to end {@link VesselShapeGeneratorProcessor#process} benchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessorBenchmark {
+
+  @Param({"0", "45", "70"})
+  public double latitude;
+
+  @Param({"1", "100", "10000"})
+  public int catalogSize;
+
+  @Param({"4326", "102100", "32633"})
+  public int wkidOut;
+
+  private VesselShapeGeneratorProcessor processor;
+  private GeoEvent event;
+
+  @Setup
+  public void setup() throws Exception {
+    Map<String, Object> values = new HashMap<>();
+    values.put("wkidout", wkidOut);
+    processor = BenchmarkSupport.processor(BenchmarkSupport.shapeCatalog(catalogSize), values);
+    event = BenchmarkSupport.vesselEvent(12.5, latitude);
+  }
+
+  @Benchmark
+  public GeoEvent process() throws Exception {
+    return processor.process(event);
+  }
+}
@@ -0,0 +1,268 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Area of interest.
+ * <p>
+ * Given either as an envelope <code>xmin,ymin,xmax,ymax</code> or as a WKT
+ * <code>POLYGON</code> or <code>MULTIPOLYGON</code> in the spatial reference
+ * of the incoming points. Polygons are indexed by a grid: cells entirely
+ * inside or outside answer directly, cells crossed by an edge fall back to
+ * ray casting against the edges of their grid row only. Rings are combined
+ * with the even-odd rule, so holes and multiple parts need no orientation.
+ * Instances are immutable and shared between threads.
+ */
+public abstract class AreaOfInterest {
+
+  private AreaOfInterest() {
+  }
+
+  /**
+   * Parses area of interest.
+   * @param text envelope or WKT polygon
+   * @return area or <code>null</code> if the text is empty
+   * @throws IllegalArgumentException if the text is invalid
+   */
+  public static AreaOfInterest parse(String text) {
+    if (text == null || text.trim().isEmpty()) {
+      return null;
+    }
+    text = text.trim();
+    if (Character.isLetter(text.charAt(0))) {
+      return new Polygon(parseRings(text));
+    }
+    String[] values = text.split(",");
+    if (values.length != 4) {
+      throw new IllegalArgumentException(String.format("Invalid area of interest envelope: %s", text));
+    }
+    double[] e = new double[4];
+    for (int i = 0; i < 4; i++) {
+      e[i] = parseNumber(values[i]);
+    }
+    if (e[0] > e[2] || e[1] > e[3]) {
+      throw new IllegalArgumentException(String.format("Invalid area of interest envelope: %s", text));
+    }
+    return new Envelope(e[0], e[1], e[2], e[3]);
+  }
+
+  /**
+   * Checks if the point lies in the area.
+   * @param x x
+   * @param y y
+   * @return <code>true</code> if the point lies in the area
+   */
+  public abstract boolean contains(double x, double y);
+
+  /**
+   * Parses rings of a WKT polygon or multipolygon.
+   * @return rings; interleaved x,y
+   */
+  private static List<double[]> parseRings(String wkt) {
+    String type = wkt.substring(0, wkt.indexOf('(') < 0 ? wkt.length() : wkt.indexOf('(')).trim().toUpperCase();
+    if (!type.equals("POLYGON") && !type.equals("MULTIPOLYGON")) {
+      throw new IllegalArgumentException(String.format("Unsupported area of interest geometry: %s", type));
+    }
+    List<double[]> rings = new ArrayList<>();
+    int start = -1;
+    for (int i = 0; i < wkt.length(); i++) {
+      char c = wkt.charAt(i);
+      if (c == '(') {
+        start = i + 1;
+      } else if (c == ')' && start >= 0) {
+        // innermost parentheses hold the coordinates of a ring
+        String[] points = wkt.substring(start, i).split(",");
+        double[] ring = new double[points.length * 2];
+        for (int p = 0; p < points.length; p++) {
+          String[] xy = points[p].trim().split("\\s+");
+          if (xy.length < 2) {
+            throw new IllegalArgumentException(String.format("Invalid area of interest coordinate: %s", points[p]));
+          }
+          ring[2 * p] = parseNumber(xy[0]);
+          ring[2 * p + 1] = parseNumber(xy[1]);
+        }
+        if (points.length < 3) {
+          throw new IllegalArgumentException("Area of interest ring needs at least 3 points");
+        }
+        rings.add(ring);
+        start = -1;
+      }
+    }
+    if (rings.isEmpty()) {
+      throw new IllegalArgumentException(String.format("Invalid area of interest: %s", wkt));
+    }
+    return rings;
+  }
+
+  private static double parseNumber(String value) {
+    try {
+      return Double.parseDouble(value.trim());
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException(String.format("Invalid area of interest number: %s", value));
+    }
+  }
+
+  private static final class Envelope extends AreaOfInterest {
+    private final double xmin;
+    private final double ymin;
+    private final double xmax;
+    private final double ymax;
+
+    Envelope(double xmin, double ymin, double xmax, double ymax) {
+      this.xmin = xmin;
+      this.ymin = ymin;
+      this.xmax = xmax;
+      this.ymax = ymax;
+    }
+
+    @Override
+    public boolean contains(double x, double y) {
+      return x >= xmin && x <= xmax && y >= ymin && y <= ymax;
+    }
+  }
+
+  private static final class Polygon extends AreaOfInterest {
+    private static final byte OUTSIDE = 0;
+    private static final byte INSIDE = 1;
+    private static final byte BOUNDARY = 2;
+
+    private final double xmin;
+    private final double ymin;
+    private final double xmax;
+    private final double ymax;
+    private final int size;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final byte[] cells;
+    // per grid row: edges as x1,y1,x2,y2
+    private final double[][] rows;
+
+    Polygon(List<double[]> rings) {
+      double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY;
+      double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+      int edgeCount = 0;
+      for (double[] ring : rings) {
+        for (int i = 0; i < ring.length; i += 2) {
+          x0 = Math.min(x0, ring[i]);
+          x1 = Math.max(x1, ring[i]);
+          y0 = Math.min(y0, ring[i + 1]);
+          y1 = Math.max(y1, ring[i + 1]);
+        }
+        edgeCount += ring.length / 2;
+      }
+      xmin = x0;
+      ymin = y0;
+      xmax = x1;
+      ymax = y1;
+      // about one edge per cell, between 4x4 and 256x256 cells
+      size = Math.max(4, Math.min(256, (int) Math.ceil(Math.sqrt(edgeCount))));
+      cellWidth = Math.max((xmax - xmin) / size, Double.MIN_VALUE);
+      cellHeight = Math.max((ymax - ymin) / size, Double.MIN_VALUE);
+
+      // distribute edges over the rows they span; mark the cells they may cross
+      cells = new byte[size * size];
+      double[][] rowEdges = new double[size][];
+      int[] rowCounts = new int[size];
+      for (double[] ring : rings) {
+        int n = ring.length / 2;
+        for (int i = 0; i < n; i++) {
+          int j = (i + 1) % n;
+          double ax = ring[2 * i], ay = ring[2 * i + 1];
+          double bx = ring[2 * j], by = ring[2 * j + 1];
+          int r0 = row(Math.min(ay, by)), r1 = row(Math.max(ay, by));
+          int c0 = column(Math.min(ax, bx)), c1 = column(Math.max(ax, bx));
+          for (int r = r0; r <= r1; r++) {
+            if (rowEdges[r] == null) {
+              rowEdges[r] = new double[16];
+            } else if (rowEdges[r].length < 4 * (rowCounts[r] + 1)) {
+              rowEdges[r] = Arrays.copyOf(rowEdges[r], rowEdges[r].length * 2);
+            }
+            double[] edges = rowEdges[r];
+            int k = 4 * rowCounts[r]++;
+            edges[k] = ax;
+            edges[k + 1] = ay;
+            edges[k + 2] = bx;
+            edges[k + 3] = by;
+            for (int c = c0; c <= c1; c++) {
+              cells[r * size + c] = BOUNDARY;
+            }
+          }
+        }
+      }
+      rows = new double[size][];
+      for (int r = 0; r < size; r++) {
+        rows[r] = rowEdges[r] != null ? Arrays.copyOf(rowEdges[r], 4 * rowCounts[r]) : new double[0];
+      }
+
+      // cells crossed by no edge are entirely inside or outside
+      for (int r = 0; r < size; r++) {
+        for (int c = 0; c < size; c++) {
+          if (cells[r * size + c] != BOUNDARY) {
+            double cx = xmin + (c + 0.5) * cellWidth;
+            double cy = ymin + (r + 0.5) * cellHeight;
+            cells[r * size + c] = crossings(rows[r], cx, cy) ? INSIDE : OUTSIDE;
+          }
+        }
+      }
+    }
+
+    @Override
+    public boolean contains(double x, double y) {
+      if (x < xmin || x > xmax || y < ymin || y > ymax) {
+        return false;
+      }
+      int r = row(y);
+      byte cell = cells[r * size + column(x)];
+      return cell == BOUNDARY ? crossings(rows[r], x, y) : cell == INSIDE;
+    }
+
+    private int row(double y) {
+      return Math.max(0, Math.min(size - 1, (int) ((y - ymin) / cellHeight)));
+    }
+
+    private int column(double x) {
+      return Math.max(0, Math.min(size - 1, (int) ((x - xmin) / cellWidth)));
+    }
+
+    /**
+     * Casts horizontal ray against the edges.
+     * @return <code>true</code> if the ray crosses an odd number of edges
+     */
+    private static boolean crossings(double[] edges, double x, double y) {
+      boolean inside = false;
+      for (int k = 0; k < edges.length; k += 4) {
+        double ax = edges[k], ay = edges[k + 1];
+        double bx = edges[k + 2], by = edges[k + 3];
+        if ((ay > y) != (by > y) && x < ax + (y - ay) * (bx - ax) / (by - ay)) {
+          inside = !inside;
+        }
+      }
+      return inside;
+    }
+  }
+}
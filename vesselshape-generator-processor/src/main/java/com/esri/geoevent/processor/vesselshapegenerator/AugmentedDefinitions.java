@@ -0,0 +1,149 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import com.esri.ges.core.geoevent.ConfigurationException;
+import com.esri.ges.core.geoevent.FieldDefinition;
+import com.esri.ges.core.geoevent.GeoEventDefinition;
+import com.esri.ges.manager.geoeventdefinition.GeoEventDefinitionManager;
+import com.esri.ges.manager.geoeventdefinition.GeoEventDefinitionManagerException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Augmented GeoEvent definitions.
+ * <p>
+ * Creates, once per input definition, a definition holding the input fields
+ * followed by the extra output fields and named after the input definition
+ * with a suffix, registers it with the
+ * {@link GeoEventDefinitionManager} as a temporary definition owned by the
+ * processor and caches it by the input definition GUID.
+ */
+final class AugmentedDefinitions {
+
+  private static final Log LOG = LogFactory.getLog(AugmentedDefinitions.class);
+
+  private final GeoEventDefinitionManager manager;
+  private final String owner;
+  private final String suffix;
+  private final List<FieldDefinition> extraFields;
+  private final ConcurrentMap<String, GeoEventDefinition> definitions = new ConcurrentHashMap<>();
+
+  /**
+   * Creates cache.
+   * @param manager GeoEvent definition manager
+   * @param owner owner of the augmented definitions
+   * @param suffix suffix appended to the input definition name
+   * @param extraFields fields appended to the input fields
+   */
+  AugmentedDefinitions(GeoEventDefinitionManager manager, String owner, String suffix, List<FieldDefinition> extraFields) {
+    this.manager = manager;
+    this.owner = owner;
+    this.suffix = suffix;
+    this.extraFields = extraFields;
+  }
+
+  List<FieldDefinition> getExtraFields() {
+    return extraFields;
+  }
+
+  /**
+   * Gets augmented definition.
+   * @param input input definition
+   * @return augmented definition
+   */
+  GeoEventDefinition get(GeoEventDefinition input) throws ConfigurationException, GeoEventDefinitionManagerException {
+    GeoEventDefinition augmented = definitions.get(input.getGuid());
+    if (augmented == null) {
+      synchronized (this) {
+        augmented = definitions.get(input.getGuid());
+        if (augmented == null) {
+          augmented = create(input);
+          definitions.put(input.getGuid(), augmented);
+        }
+      }
+    }
+    return augmented;
+  }
+
+  /**
+   * Removes the augmented definitions from the manager.
+   */
+  synchronized void destroy() {
+    for (GeoEventDefinition augmented : definitions.values()) {
+      try {
+        manager.deleteGeoEventDefinition(augmented.getGuid());
+      } catch (GeoEventDefinitionManagerException ex) {
+        LOG.warn(String.format("Unable to delete GeoEvent definition: %s", augmented.getName()), ex);
+      }
+    }
+    definitions.clear();
+  }
+
+  private GeoEventDefinition create(GeoEventDefinition input) throws ConfigurationException, GeoEventDefinitionManagerException {
+    String name = input.getName() + suffix;
+    // reuse the definition registered by an earlier instance of the processor
+    Collection<GeoEventDefinition> existing = manager.searchGeoEventDefinition(name, owner);
+    if (existing != null) {
+      for (GeoEventDefinition candidate : existing) {
+        if (matches(candidate, input)) {
+          return candidate;
+        }
+        manager.deleteGeoEventDefinition(candidate.getGuid());
+      }
+    }
+    GeoEventDefinition augmented = input.augment(extraFields);
+    augmented.setName(name);
+    augmented.setOwner(owner);
+    manager.addTemporaryGeoEventDefinition(augmented, true);
+    return augmented;
+  }
+
+  /**
+   * Checks if the candidate holds the input fields followed by the extra
+   * fields, compared by name and type in order.
+   * @param candidate registered definition
+   * @param input input definition
+   * @return <code>true</code> if the candidate can be reused
+   */
+  private boolean matches(GeoEventDefinition candidate, GeoEventDefinition input) {
+    List<FieldDefinition> fields = candidate.getFieldDefinitions();
+    List<FieldDefinition> inputFields = input.getFieldDefinitions();
+    if (fields.size() != inputFields.size() + extraFields.size()) {
+      return false;
+    }
+    for (int i = 0; i < fields.size(); i++) {
+      FieldDefinition expected = i < inputFields.size() ? inputFields.get(i) : extraFields.get(i - inputFields.size());
+      FieldDefinition field = fields.get(i);
+      if (!expected.getName().equals(field.getName()) || expected.getType() != field.getType()) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,145 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import com.esri.ges.core.geoevent.GeoEvent;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Latest value conflation.
+ * <p>
+ * Keeps only the latest pending event of each track in a concurrent map;
+ * a timer flushes the pending events once per interval, so each track is
+ * handled at most once per interval however many reports arrive. Shutting
+ * down first closes the conflator and waits for offers in progress, so every
+ * queued event is in the final flush; events offered after closing are
+ * handled on the offering thread.
+ */
+final class Conflator {
+
+  private static final Log LOG = LogFactory.getLog(Conflator.class);
+
+  /**
+   * Flushed event handler.
+   */
+  interface Handler {
+    void handle(Object trackId, GeoEvent ge);
+  }
+
+  private final ConcurrentMap<Object, GeoEvent> pending = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService timer;
+  private final Handler handler;
+  private final long interval;
+  // set when shutting down; later offers are handled directly
+  private volatile boolean closed;
+  private final AtomicInteger offering = new AtomicInteger();
+
+  Conflator(final String name, long interval, Handler handler) {
+    this.interval = interval;
+    this.handler = handler;
+    timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, name);
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    timer.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        flush();
+      }
+    }, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  long getInterval() {
+    return interval;
+  }
+
+  /**
+   * Queues event replacing the pending event of the track; once closed, the
+   * event is handled on the calling thread.
+   * @param trackId track id
+   * @param ge event
+   * @return <code>true</code> if a pending event was replaced
+   */
+  boolean offer(Object trackId, GeoEvent ge) {
+    offering.incrementAndGet();
+    try {
+      if (!closed) {
+        return pending.put(trackId, ge) != null;
+      }
+    } finally {
+      offering.decrementAndGet();
+    }
+    handle(trackId, ge);
+    return false;
+  }
+
+  /**
+   * Stops accepting events, waits for offers in progress, stops the timer
+   * and flushes the pending events.
+   */
+  void shutdown() {
+    closed = true;
+    // an offer that has not seen the flag yet is counted and queues before the final flush
+    while (offering.get() > 0) {
+      Thread.yield();
+    }
+    timer.shutdown();
+    try {
+      timer.awaitTermination(interval, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+  }
+
+  private void flush() {
+    for (Map.Entry<Object, GeoEvent> e : pending.entrySet()) {
+      // an event offered meanwhile stays pending for the next flush
+      if (pending.remove(e.getKey(), e.getValue())) {
+        handle(e.getKey(), e.getValue());
+      }
+    }
+  }
+
+  private void handle(Object trackId, GeoEvent ge) {
+    try {
+      handler.handle(trackId, ge);
+    } catch (RuntimeException ex) {
+      LOG.error(ex.getMessage(), ex);
+    }
+  }
+}
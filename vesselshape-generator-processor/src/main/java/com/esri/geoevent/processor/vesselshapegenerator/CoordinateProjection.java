@@ -0,0 +1,182 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import com.esri.core.geometry.Geometry;
+import com.esri.core.geometry.GeometryEngine;
+import com.esri.core.geometry.MultiPoint;
+import com.esri.core.geometry.MultiVertexGeometry;
+import com.esri.core.geometry.Point2D;
+import com.esri.core.geometry.SpatialReference;
+
+/**
+ * Projection between a spatial reference and Web Mercator (102100).
+ * <p>
+ * Operates in place on interleaved x,y coordinate buffers. WGS84 (4326) and
+ * the Web Mercator aliases are handled with closed-form spherical Mercator
+ * math; any other spatial reference falls back to {@link GeometryEngine#project}.
+ * Instances are immutable and shared between threads.
+ */
+public abstract class CoordinateProjection {
+
+  /** Web Mercator spatial reference used for hull construction. */
+  public static final int WEB_MERCATOR = 102100;
+  /** WGS84 geographic spatial reference. */
+  public static final int WGS84 = 4326;
+
+  // Web Mercator latitude limit
+  private static final double MAX_LATITUDE = 85.0511287798066;
+  private static final SpatialReference srWebMercator = SpatialReference.create(WEB_MERCATOR);
+
+  private final SpatialReference spatialReference;
+
+  private CoordinateProjection(SpatialReference spatialReference) {
+    this.spatialReference = spatialReference;
+  }
+
+  /**
+   * Creates projection for the spatial reference.
+   * @param sr spatial reference
+   * @return projection
+   */
+  public static CoordinateProjection create(SpatialReference sr) {
+    switch (sr.getID()) {
+      case WEB_MERCATOR:
+      case 3857:
+      case 102113:
+      case 900913:
+        return new WebMercator(sr);
+      case WGS84:
+        return new Geographic(sr);
+      default:
+        return new Generic(sr);
+    }
+  }
+
+  /**
+   * Creates projection for the well-known id.
+   * @param wkid well-known id
+   * @return projection
+   */
+  public static CoordinateProjection create(int wkid) {
+    return create(SpatialReference.create(wkid));
+  }
+
+  public SpatialReference getSpatialReference() {
+    return spatialReference;
+  }
+
+  /**
+   * Checks if the projection serves the spatial reference.
+   * @param sr spatial reference
+   * @return <code>true</code> if the projection serves the spatial reference
+   */
+  public boolean accepts(SpatialReference sr) {
+    return sr == spatialReference || (sr.getID() != 0 && sr.getID() == spatialReference.getID());
+  }
+
+  /**
+   * Projects coordinates into Web Mercator in place.
+   * @param coords interleaved x,y
+   * @param count number of vertices
+   */
+  public abstract void toWebMercator(double[] coords, int count);
+
+  /**
+   * Projects coordinates from Web Mercator in place.
+   * @param coords interleaved x,y
+   * @param count number of vertices
+   */
+  public abstract void fromWebMercator(double[] coords, int count);
+
+  private static final class WebMercator extends CoordinateProjection {
+
+    WebMercator(SpatialReference sr) {
+      super(sr);
+    }
+
+    @Override
+    public void toWebMercator(double[] coords, int count) {
+    }
+
+    @Override
+    public void fromWebMercator(double[] coords, int count) {
+    }
+  }
+
+  private static final class Geographic extends CoordinateProjection {
+
+    Geographic(SpatialReference sr) {
+      super(sr);
+    }
+
+    @Override
+    public void toWebMercator(double[] coords, int count) {
+      for (int i = 0; i < 2 * count; i += 2) {
+        double lat = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, coords[i + 1]));
+        coords[i] = Math.toRadians(coords[i]) * WebMercatorScale.RADIUS;
+        coords[i + 1] = Math.log(Math.tan(Math.PI / 4 + Math.toRadians(lat) / 2)) * WebMercatorScale.RADIUS;
+      }
+    }
+
+    @Override
+    public void fromWebMercator(double[] coords, int count) {
+      for (int i = 0; i < 2 * count; i += 2) {
+        coords[i] = Math.toDegrees(coords[i] / WebMercatorScale.RADIUS);
+        coords[i + 1] = Math.toDegrees(2 * Math.atan(Math.exp(coords[i + 1] / WebMercatorScale.RADIUS)) - Math.PI / 2);
+      }
+    }
+  }
+
+  private static final class Generic extends CoordinateProjection {
+
+    Generic(SpatialReference sr) {
+      super(sr);
+    }
+
+    @Override
+    public void toWebMercator(double[] coords, int count) {
+      project(coords, count, getSpatialReference(), srWebMercator);
+    }
+
+    @Override
+    public void fromWebMercator(double[] coords, int count) {
+      project(coords, count, srWebMercator, getSpatialReference());
+    }
+
+    private static void project(double[] coords, int count, SpatialReference srIn, SpatialReference srOut) {
+      MultiPoint points = new MultiPoint();
+      for (int i = 0; i < count; i++) {
+        points.add(coords[2 * i], coords[2 * i + 1]);
+      }
+      Geometry projected = GeometryEngine.project(points, srIn, srOut);
+      MultiVertexGeometry vertices = (MultiVertexGeometry) projected;
+      for (int i = 0; i < count; i++) {
+        Point2D pt = vertices.getXY(i);
+        coords[2 * i] = pt.x;
+        coords[2 * i + 1] = pt.y;
+      }
+    }
+  }
+}
@@ -0,0 +1,203 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import com.esri.ges.core.geoevent.FieldDefinition;
+import com.esri.ges.core.geoevent.GeoEvent;
+import com.esri.ges.core.geoevent.GeoEventDefinition;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Field access plan.
+ * <p>
+ * Compiled once per GeoEvent definition: validates the required tags and
+ * resolves the index of each tagged field so events are read by position.
+ */
+public final class FieldAccessPlan {
+
+  /** Tags required on the incoming GeoEvent definition. */
+  public static final String[] REQUIRED_TAGS = {
+    "GEOMETRY", "TRACK_ID", "VESSEL_TYPE", "VESSEL_BEARING", "VESSEL_BOW", "VESSEL_PORT", "VESSEL_STARBOARD", "VESSEL_STERN"
+  };
+  /** Required tags that may be completed from per track static data. */
+  public static final String[] STATIC_TAGS = {
+    "VESSEL_TYPE", "VESSEL_BOW", "VESSEL_PORT", "VESSEL_STARBOARD", "VESSEL_STERN"
+  };
+
+  private final String missingTag;
+  private final String missingPositionTag;
+  private final int trackId;
+  private final int vesselType;
+  private final int bearing;
+  private final int bow;
+  private final int stern;
+  private final int port;
+  private final int starboard;
+  private final int timeStart;
+  private final int course;
+  private final int speed;
+  private final int rateOfTurn;
+
+  private FieldAccessPlan(List<FieldDefinition> fields) {
+    String missing = null;
+    String missingPosition = null;
+    for (String tag : REQUIRED_TAGS) {
+      if (indexOf(fields, tag) < 0) {
+        if (missing == null) {
+          missing = tag;
+        }
+        if (missingPosition == null && !Arrays.asList(STATIC_TAGS).contains(tag)) {
+          missingPosition = tag;
+        }
+      }
+    }
+    missingTag = missing;
+    missingPositionTag = missingPosition;
+    trackId = indexOf(fields, "TRACK_ID");
+    vesselType = indexOf(fields, "VESSEL_TYPE");
+    bearing = indexOf(fields, "VESSEL_BEARING");
+    bow = indexOf(fields, "VESSEL_BOW");
+    stern = indexOf(fields, "VESSEL_STERN");
+    port = indexOf(fields, "VESSEL_PORT");
+    starboard = indexOf(fields, "VESSEL_STARBOARD");
+    timeStart = indexOf(fields, "TIME_START");
+    course = indexOf(fields, "VESSEL_COURSE");
+    speed = indexOf(fields, "VESSEL_SPEED");
+    rateOfTurn = indexOf(fields, "VESSEL_RATE_OF_TURN");
+  }
+
+  /**
+   * Compiles plan for the definition.
+   * @param definition GeoEvent definition
+   * @return plan
+   */
+  public static FieldAccessPlan compile(GeoEventDefinition definition) {
+    return new FieldAccessPlan(definition.getFieldDefinitions());
+  }
+
+  /**
+   * Gets first required tag missing from the definition, ignoring the
+   * {@link #STATIC_TAGS} which static data can supply.
+   * @param staticData <code>true</code> if static data is available
+   * @return missing tag or <code>null</code>
+   */
+  public String getMissingTag(boolean staticData) {
+    return staticData ? missingPositionTag : missingTag;
+  }
+
+  public Object getTrackId(GeoEvent ge) {
+    return ge.getField(trackId);
+  }
+
+  public Object getVesselType(GeoEvent ge) {
+    return vesselType >= 0 ? ge.getField(vesselType) : null;
+  }
+
+  public double getBearing(GeoEvent ge) {
+    return getDouble(ge, bearing);
+  }
+
+  public double getBow(GeoEvent ge) {
+    return getDouble(ge, bow);
+  }
+
+  public double getStern(GeoEvent ge) {
+    return getDouble(ge, stern);
+  }
+
+  public double getPort(GeoEvent ge) {
+    return getDouble(ge, port);
+  }
+
+  public double getStarboard(GeoEvent ge) {
+    return getDouble(ge, starboard);
+  }
+
+  /**
+   * Reads course over ground (optional VESSEL_COURSE tag).
+   * @param ge GeoEvent
+   * @return course or <code>NaN</code> if not available
+   */
+  public double getCourse(GeoEvent ge) {
+    return getDouble(ge, course);
+  }
+
+  /**
+   * Reads speed over ground in knots (optional VESSEL_SPEED tag).
+   * @param ge GeoEvent
+   * @return speed or <code>NaN</code> if not available
+   */
+  public double getSpeed(GeoEvent ge) {
+    return getDouble(ge, speed);
+  }
+
+  /**
+   * Reads rate of turn in degrees per minute, positive to starboard
+   * (optional VESSEL_RATE_OF_TURN tag).
+   * @param ge GeoEvent
+   * @return rate of turn or <code>NaN</code> if not available
+   */
+  public double getRateOfTurn(GeoEvent ge) {
+    return getDouble(ge, rateOfTurn);
+  }
+
+  /**
+   * Reads report time (optional TIME_START tag).
+   * @param ge GeoEvent
+   * @return time in milliseconds or <code>Long.MIN_VALUE</code> if not available
+   */
+  public long getTimeStart(GeoEvent ge) {
+    Object value = timeStart >= 0 ? ge.getField(timeStart) : null;
+    if (value instanceof Date) {
+      return ((Date) value).getTime();
+    }
+    return value instanceof Number ? ((Number) value).longValue() : Long.MIN_VALUE;
+  }
+
+  /**
+   * Reads numeric field.
+   * @param ge GeoEvent
+   * @param index field index
+   * @return value or <code>NaN</code> if the field is missing or not a number
+   */
+  private static double getDouble(GeoEvent ge, int index) {
+    if (index < 0) {
+      return Double.NaN;
+    }
+    Object value = ge.getField(index);
+    return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+  }
+
+  private static int indexOf(List<FieldDefinition> fields, String tag) {
+    for (int i = 0; i < fields.size(); i++) {
+      List<String> tags = fields.get(i).getTags();
+      if (tags != null && tags.contains(tag)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
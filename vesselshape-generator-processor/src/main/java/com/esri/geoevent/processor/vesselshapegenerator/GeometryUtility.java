@@ -24,19 +24,20 @@
 package com.esri.geoevent.processor.vesselshapegenerator;
 
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import com.esri.core.geometry.Geometry;
-import com.esri.core.geometry.GeometryEngine;
-import com.esri.core.geometry.LinearUnit;
 import com.esri.core.geometry.Point;
 import com.esri.core.geometry.Point2D;
 import com.esri.core.geometry.Polygon;
-import com.esri.core.geometry.Polyline;
-import com.esri.core.geometry.SpatialReference;
-import com.esri.geoevent.processor.vesselshapegenerator.model.Factor;
 import com.esri.geoevent.processor.vesselshapegenerator.model.Shape;
+import com.esri.geoevent.processor.vesselshapegenerator.model.ShapeTemplate;
 
 public class GeometryUtility {
 
+  // unit circle tables by number of segments
+  private static final ConcurrentMap<Integer, double[]> UNIT_CIRCLES = new ConcurrentHashMap<>();
+
 	public GeometryUtility() {}
 	
 	public static double Geo2Arithmetic(double inAngle)
@@ -97,60 +98,74 @@ public class GeometryUtility {
 	
 	public Polygon GenerateEllipse(Point center, double majorAxis, double minorAxis, double ra)
 	{
-		Polygon ellipse = new Polygon();
-		for (int i = 0; i < 360; ++i)
-		{
-			double theta = Math.toRadians(i);
-			Point p = ellipsePtFromAngle(center, majorAxis, minorAxis, theta);
-			p = GeometryUtility.Rotate(center, p, ra);
-			if (i == 0) {
-				ellipse.startPath(p);
-			}
-			else{
-				ellipse.lineTo(p);
-			}
-		}
-		ellipse.closeAllPaths();
-		return ellipse;
-	}
-	
-	private Point ellipsePtFromAngle(Point center, double rh, double rv, double angle)
-	{
-		double x = center.getX();
-		double y = center.getY();
-		double c = Math.cos(angle);
-		double s = Math.sin(angle);
-		double ta = s/c;
-		double tt = ta * (rh/rv);
-		double d = 1.0 / Math.sqrt(1.0 + Math.pow(tt, 2));
-		double ex = x + Math.copySign(rh*d, c);
-		double ey = y + Math.copySign(rv * tt * d, s);
-		return new Point(ex,ey);
-		
-	}
-	
-	private static Polyline drawLine(Point pt1, Point pt2)
-	{
-	  Polyline line = new Polyline();
-	  Point2D[] points = new Point2D[2];
-	  points[0] = Point2D.construct(pt1.getX(), pt1.getY());
-	  points[1] = Point2D.construct(pt2.getX(), pt2.getY());
-	  line.addPath(points, 2, true);
-    return line;	  
+		double[] unitCircle = unitCircle(360);
+		double[] coords = new double[unitCircle.length];
+		double cosra = Math.cos(ra);
+		double sinra = Math.sin(ra);
+		int count = generateEllipse(center.getX(), center.getY(),
+				majorAxis * cosra, -minorAxis * sinra, majorAxis * sinra, minorAxis * cosra, unitCircle, coords);
+		return toPolygon(coords, count);
 	}
 
+  /**
+   * Gets unit circle table; computed once per number of segments.
+   * @param segments number of segments
+   * @return interleaved cosine, sine of the segment angles
+   */
+  public static double[] unitCircle(int segments)
+  {
+    double[] table = UNIT_CIRCLES.get(segments);
+    if (table == null) {
+      table = new double[segments * 2];
+      for (int i = 0; i < segments; i++)
+      {
+        double theta = 2.0 * Math.PI * i / segments;
+        table[2 * i] = Math.cos(theta);
+        table[2 * i + 1] = Math.sin(theta);
+      }
+      double[] existing = UNIT_CIRCLES.putIfAbsent(segments, table);
+      if (existing != null) {
+        table = existing;
+      }
+    }
+    return table;
+  }
+
+  /**
+   * Generates ellipse by a single affine transform of the unit circle into
+   * the coordinate buffer: <code>x = centerX + m00 * cos + m01 * sin</code>,
+   * <code>y = centerY + m10 * cos + m11 * sin</code>.
+   * 
+   * @param centerX center X
+   * @param centerY center Y
+   * @param m00 transform
+   * @param m01 transform
+   * @param m10 transform
+   * @param m11 transform
+   * @param unitCircle unit circle table
+   * @param coords buffer receiving interleaved x,y; at least the table length
+   * @return number of vertices written
+   * @see #unitCircle(int)
+   */
+  public static int generateEllipse(double centerX, double centerY, double m00, double m01, double m10, double m11,
+      double[] unitCircle, double[] coords)
+  {
+    int length = unitCircle.length;
+    for (int j = 0; j < length; j += 2)
+    {
+      double c = unitCircle[j];
+      double s = unitCircle[j + 1];
+      coords[j] = centerX + m00 * c + m01 * s;
+      coords[j + 1] = centerY + m10 * c + m11 * s;
+    }
+    return length / 2;
+  }
+	
 	public static Polygon _generateVesselShape(Point center, double shipWidth, double shipLength, double headingDegrees)
 	{
 		// this generate vessel shape pointing west at 0 degree.
 		// will need to make it point north first then rotate by heading
-	    Point pt = new Point(center.getX() + shipLength, center.getY());
-	    Polyline centerline = drawLine(center, pt);
-	    Geometry geom = centerline;
-	    SpatialReference spatialReference = SpatialReference.create(102100);
-	    LinearUnit unit = (LinearUnit)LinearUnit.create(LinearUnit.Code.METER);
-	    
-	    double lineGeodesicLength = GeometryEngine.geodesicLength(geom, spatialReference, unit); //(centerline, "meters");  
-	    double ratio = shipLength / lineGeodesicLength;
+	    double ratio = calculateRation(center, shipLength);
 	    Polygon polygon = new Polygon();
 	    ArrayList<Point2D> path = new ArrayList<Point2D>();
 	    double centerX = center.getX();
@@ -232,74 +247,182 @@ public class GeometryUtility {
 	    return polygon;
 	}
   
+  /**
+   * Calculates ratio of Web Mercator map units to meters at the center.
+   * @param center center (102100)
+   * @param shipLength ship length; the ratio does not depend on it at ship scale
+   * @return map units per meter; within {@link WebMercatorScale#RELATIVE_ERROR}
+   * of the ratio derived from the geodesic length of the ship
+   * @see WebMercatorScale
+   */
   public static double calculateRation(Point center, double shipLength) {
-    Point pt = new Point(center.getX() + shipLength, center.getY());
-    Polyline centerline = drawLine(center, pt);
-    Geometry geom = centerline;
-    SpatialReference spatialReference = SpatialReference.create(102100);
-    LinearUnit unit = (LinearUnit)LinearUnit.create(LinearUnit.Code.METER);
-    double lineGeodesicLength = GeometryEngine.geodesicLength(geom, spatialReference, unit);
-    double ratio = shipLength / lineGeodesicLength;
-    return ratio;
+    return WebMercatorScale.ratio(center.getY());
   }
   
 	public static Polygon generateVesselShape(Point center, double shipWidth, double shipLength, double headingDegrees, Shape shape)
 	{
-		// this generate vessel shape pointing west at 0 degree.
-		// will need to make it point north first then rotate by heading
-    /*
-	    Point pt = new Point(center.getX() + shipLength, center.getY());
-	    Polyline centerline = drawLine(center, pt);
-	    Geometry geom = centerline;
-	    SpatialReference spatialReference = SpatialReference.create(102100);
-	    LinearUnit unit = (LinearUnit)LinearUnit.create(LinearUnit.Code.METER);
-	    
-	    double lineGeodesicLength = GeometryEngine.geodesicLength(geom, spatialReference, unit); //(centerline, "meters");  
-	    double ratio = shipLength / lineGeodesicLength;
-    */
-      double ratio = calculateRation(center, shipLength);
-	    Polygon polygon = new Polygon();
-	    ArrayList<Point2D> path = new ArrayList<Point2D>();
-	    double centerX = center.getX();
-	    double centerY = center.getY();
-	    
-	    double aHeading = GeometryUtility.Geo2Arithmetic(headingDegrees);
-	    double angleRadians = Math.toRadians(aHeading - 180); //add 90 degree to make it point east
-	    
-	    /////Top side
-	    final double positiveDir = 1.0;
-	    path.add(createVertex(shipWidth, shipLength, 1.0, centerX, centerY, angleRadians, 0.0, 0.0, positiveDir));  
-      for (Factor f: shape.starboardSide) {
-        path.add(createVertex(shipWidth, shipLength, ratio, centerX, centerY, angleRadians, f.x, f.y, positiveDir));    
+	  ShapeTemplate template = ShapeTemplate.compile(shape);
+	  double ratio = calculateRation(center, shipLength);
+	  double[] coords = new double[template.getVertexCount() * 2];
+	  int count = generateVesselShape(center.getX(), center.getY(), shipWidth, shipLength, headingDegrees, ratio, template, coords);
+	  return toPolygon(coords, count);
+	}
+
+  /**
+   * Generates vessel shape from the compiled template into the coordinate buffer.
+   * <p>
+   * Each template vertex is scaled by the vessel dimensions, shifted half the
+   * length back, rotated by heading around the center and translated to the
+   * center in a single pass.
+   * 
+   * @param centerX center X
+   * @param centerY center Y
+   * @param shipWidth ship width
+   * @param shipLength ship length
+   * @param headingDegrees heading (degrees)
+   * @param ratio map units per meter at the center
+   * @param template compiled shape
+   * @param coords buffer receiving interleaved x,y; at least twice the vertex count
+   * @return number of vertices written
+   */
+  public static int generateVesselShape(double centerX, double centerY, double shipWidth, double shipLength,
+      double headingDegrees, double ratio, ShapeTemplate template, double[] coords)
+  {
+    return generateVesselShape(centerX, centerY, shipWidth, shipLength, headingDegrees, ratio, template, coords, 0);
+  }
+
+  /**
+   * Generates vessel shape from the compiled template into the coordinate
+   * buffer starting at the vertex offset.
+   * 
+   * @param centerX center X
+   * @param centerY center Y
+   * @param shipWidth ship width
+   * @param shipLength ship length
+   * @param headingDegrees heading (degrees)
+   * @param ratio map units per meter at the center
+   * @param template compiled shape
+   * @param coords buffer receiving interleaved x,y
+   * @param offset index of the first vertex written
+   * @return number of vertices written
+   */
+  public static int generateVesselShape(double centerX, double centerY, double shipWidth, double shipLength,
+      double headingDegrees, double ratio, ShapeTemplate template, double[] coords, int offset)
+  {
+    double angleRadians = Math.toRadians(GeometryUtility.Geo2Arithmetic(headingDegrees) - 180);
+    double cosra = Math.cos(angleRadians);
+    double sinra = Math.sin(angleRadians);
+    double scaleX = shipLength * ratio;
+    double scaleY = shipWidth * ratio;
+    double shiftX = shipLength * 0.5;
+
+    int count = template.getVertexCount();
+    for (int i = 0, j = 2 * offset; i < count; i++)
+    {
+      double x = scaleX * template.getX(i) - shiftX;
+      double y = scaleY * template.getY(i);
+      coords[j++] = centerX + cosra * x - sinra * y;
+      coords[j++] = centerY + sinra * x + cosra * y;
+    }
+    return count;
+  }
+
+  /**
+   * Builds clockwise convex hull of points in the coordinate buffer with
+   * gift wrapping; hulls of a few vessel poses have few vertices, so it is
+   * cheaper than sorting the points.
+   * @param coords buffer; the points at vertex 0
+   * @param m number of points
+   * @param offset index of the first vertex written; at least the number of points
+   * @return number of vertices written
+   */
+  public static int convexHull(double[] coords, int m, int offset)
+  {
+    int start = 0;
+    for (int i = 1; i < m; i++) {
+      if (coords[2 * i] < coords[2 * start] || (coords[2 * i] == coords[2 * start] && coords[2 * i + 1] < coords[2 * start + 1])) {
+        start = i;
       }
-	
-	    ////// Bottom side
-	    final double negativeDir = -1.0;
-      for (Factor f: shape.portSide) {
-        path.add(createVertex(shipWidth, shipLength, ratio, centerX, centerY, angleRadians, f.x, f.y, negativeDir));    
+    }
+    int count = 0;
+    int p = start;
+    do {
+      coords[2 * (offset + count)] = coords[2 * p];
+      coords[2 * (offset + count) + 1] = coords[2 * p + 1];
+      count++;
+      double px = coords[2 * p];
+      double py = coords[2 * p + 1];
+      int q = (p + 1) % m;
+      for (int r = 0; r < m; r++) {
+        double qx = coords[2 * q] - px;
+        double qy = coords[2 * q + 1] - py;
+        double rx = coords[2 * r] - px;
+        double ry = coords[2 * r + 1] - py;
+        double cross = qx * ry - qy * rx;
+        // keep every point on the right; the farthest of collinear points
+        if (cross > 0.0 || (cross == 0.0 && rx * rx + ry * ry > qx * qx + qy * qy)) {
+          q = r;
+        }
       }
-	    path.add(createVertex(shipWidth, shipLength, ratio, centerX, centerY, angleRadians, 0.0, 0.0, positiveDir));    
-    
-	    Point2D[] points = new Point2D[path.size()];
-	    path.toArray(points);
+      p = q;
+    } while ((coords[2 * p] != coords[2 * start] || coords[2 * p + 1] != coords[2 * start + 1]) && count < m);
+    return count;
+  }
 
-	    polygon.addPath(points, path.size(), true);
-	    polygon.closeAllPaths();
-	    return polygon;
-	}
+  /**
+   * Creates polygon from the coordinate buffer.
+   * @param coords interleaved x,y
+   * @param count number of vertices
+   * @return polygon
+   */
+  public static Polygon toPolygon(double[] coords, int count)
+  {
+    Polygon polygon = new Polygon();
+    polygon.startPath(coords[0], coords[1]);
+    for (int i = 1; i < count; i++)
+    {
+      polygon.lineTo(coords[2 * i], coords[2 * i + 1]);
+    }
+    polygon.closeAllPaths();
+    return polygon;
+  }
+
+  /**
+   * Creates polygon from the coordinate buffer and accumulates its envelope
+   * in the same pass.
+   * @param coords interleaved x,y
+   * @param count number of vertices
+   * @param extent receives xmin, ymin, xmax, ymax
+   * @return polygon
+   */
+  public static Polygon toPolygon(double[] coords, int count, double[] extent)
+  {
+    double xmin = coords[0], ymin = coords[1], xmax = coords[0], ymax = coords[1];
+    Polygon polygon = new Polygon();
+    polygon.startPath(coords[0], coords[1]);
+    for (int i = 1; i < count; i++)
+    {
+      double x = coords[2 * i];
+      double y = coords[2 * i + 1];
+      polygon.lineTo(x, y);
+      xmin = Math.min(xmin, x);
+      ymin = Math.min(ymin, y);
+      xmax = Math.max(xmax, x);
+      ymax = Math.max(ymax, y);
+    }
+    polygon.closeAllPaths();
+    extent[0] = xmin;
+    extent[1] = ymin;
+    extent[2] = xmax;
+    extent[3] = ymax;
+    return polygon;
+  }
 
 	public static Polygon generateVesselShape(Point center, double shipWidth, double shipLength, double headingDegrees)
 	{
 		// this generate vessel shape pointing west at 0 degree.
 		// will need to make it point north first then rotate by heading
-	    Point pt = new Point(center.getX() + shipLength, center.getY());
-	    Polyline centerline = drawLine(center, pt);
-	    Geometry geom = centerline;
-	    SpatialReference spatialReference = SpatialReference.create(102100);
-	    LinearUnit unit = (LinearUnit)LinearUnit.create(LinearUnit.Code.METER);
-	    
-	    double lineGeodesicLength = GeometryEngine.geodesicLength(geom, spatialReference, unit); //(centerline, "meters");  
-	    double ratio = shipLength / lineGeodesicLength;
+	    double ratio = calculateRation(center, shipLength);
 	    Polygon polygon = new Polygon();
 	    ArrayList<Point2D> path = new ArrayList<Point2D>();
 	    double centerX = center.getX();
@@ -0,0 +1,122 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import com.esri.geoevent.processor.vesselshapegenerator.model.ShapeTemplate;
+
+/**
+ * Level of detail selection.
+ * <p>
+ * Either a fixed level for every vessel or a level by vessel length: vessels
+ * shorter than the first threshold are drawn as arrows, shorter than the
+ * second as coarse and shorter than the third as simplified hulls; longer
+ * vessels get the full hull. Instances are immutable.
+ */
+final class LevelOfDetail {
+
+  /** Full hull for every vessel. */
+  static final LevelOfDetail FULL = new LevelOfDetail(ShapeTemplate.LEVEL_FULL, null);
+
+  private final int level;
+  private final double[] lengths;
+
+  private LevelOfDetail(int level, double[] lengths) {
+    this.level = level;
+    this.lengths = lengths;
+  }
+
+  /**
+   * Parses level of detail.
+   * @param mode <code>Full</code>, <code>Simplified</code>, <code>Coarse</code>,
+   * <code>Arrow</code> or <code>By Length</code>
+   * @param lengths ascending arrow, coarse and simplified length thresholds
+   * in meters separated by commas; used by <code>By Length</code> only
+   * @return level of detail
+   * @throws IllegalArgumentException if the mode or the thresholds are invalid
+   */
+  static LevelOfDetail parse(String mode, String lengths) {
+    String value = mode != null ? mode.trim() : "Full";
+    if ("Full".equalsIgnoreCase(value)) {
+      return FULL;
+    }
+    if ("Simplified".equalsIgnoreCase(value)) {
+      return new LevelOfDetail(ShapeTemplate.LEVEL_SIMPLIFIED, null);
+    }
+    if ("Coarse".equalsIgnoreCase(value)) {
+      return new LevelOfDetail(ShapeTemplate.LEVEL_COARSE, null);
+    }
+    if ("Arrow".equalsIgnoreCase(value)) {
+      return new LevelOfDetail(ShapeTemplate.LEVEL_ARROW, null);
+    }
+    if (!"By Length".equalsIgnoreCase(value)) {
+      throw new IllegalArgumentException(String.format("Invalid level of detail: %s", mode));
+    }
+    String[] parts = lengths != null ? lengths.split(",") : new String[0];
+    if (parts.length != ShapeTemplate.LEVEL_COUNT - 1) {
+      throw new IllegalArgumentException(String.format("Invalid level of detail lengths: %s", lengths));
+    }
+    double[] thresholds = new double[parts.length];
+    for (int i = 0; i < parts.length; i++) {
+      try {
+        thresholds[i] = Double.parseDouble(parts[i].trim());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException(String.format("Invalid level of detail lengths: %s", lengths));
+      }
+      if (i > 0 && thresholds[i] < thresholds[i - 1]) {
+        throw new IllegalArgumentException(String.format("Level of detail lengths must be ascending: %s", lengths));
+      }
+    }
+    return new LevelOfDetail(ShapeTemplate.LEVEL_FULL, thresholds);
+  }
+
+  /**
+   * Selects level of detail.
+   * @param length vessel length in meters
+   * @return level of detail
+   */
+  int select(double length) {
+    if (lengths == null) {
+      return level;
+    }
+    // thresholds ordered from the arrow up to the simplified level
+    for (int i = 0; i < lengths.length; i++) {
+      if (length < lengths[i]) {
+        return ShapeTemplate.LEVEL_ARROW - i;
+      }
+    }
+    return ShapeTemplate.LEVEL_FULL;
+  }
+
+  @Override
+  public String toString() {
+    if (lengths == null) {
+      return Integer.toString(level);
+    }
+    StringBuilder sb = new StringBuilder("length");
+    for (double length : lengths) {
+      sb.append(',').append(length);
+    }
+    return sb.toString();
+  }
+}
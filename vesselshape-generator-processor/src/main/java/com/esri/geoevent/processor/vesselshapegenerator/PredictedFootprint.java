@@ -0,0 +1,195 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import com.esri.geoevent.processor.vesselshapegenerator.model.ShapeTemplate;
+
+/**
+ * Dead-reckoning swept footprint.
+ * <p>
+ * The area the vessel covers over the horizon at its current speed and
+ * course. On a straight track the footprint is the convex hull of the start
+ * and end positions, built from the convex template vertices in linear
+ * time: the chain facing the course is moved to the end position and the
+ * chain facing away stays at the start. When a rate of turn is reported the
+ * track is an arc sampled at every step and the footprint is the convex hull
+ * of all sampled poses. Instances are immutable.
+ */
+final class PredictedFootprint {
+
+  private static final double KNOTS_TO_METERS_PER_SECOND = 1852.0 / 3600.0;
+  /** Rate of turn magnitude (degrees per minute) treated as not available. */
+  private static final double RATE_OF_TURN_LIMIT = 720.0;
+
+  private final int horizon;
+  private final int step;
+
+  /**
+   * Creates footprint generator.
+   * @param horizon prediction horizon in seconds
+   * @param step sampling interval of turning tracks in seconds
+   * @throws IllegalArgumentException if the parameters are invalid
+   */
+  PredictedFootprint(int horizon, int step) {
+    if (horizon <= 0 || step <= 0) {
+      throw new IllegalArgumentException(String.format("Invalid footprint horizon %d or step %d", horizon, step));
+    }
+    this.horizon = horizon;
+    this.step = step;
+  }
+
+  /**
+   * Gets coordinate buffer size needed by {@link #generate}.
+   * @param vertexCount number of convex template vertices
+   * @return number of vertices
+   */
+  int getBufferSize(int vertexCount) {
+    return 2 * getPoseCount() * vertexCount + 2;
+  }
+
+  /**
+   * Generates footprint into the coordinate buffer.
+   * @param originX reported position X
+   * @param originY reported position Y
+   * @param xShift shift from the position to the vessel center across the vessel in meters
+   * @param yShift shift from the position to the vessel center along the vessel in meters
+   * @param shipWidth ship width
+   * @param shipLength ship length
+   * @param headingDegrees heading (degrees)
+   * @param ratio map units per meter at the position
+   * @param convexHull convex hull of the shape
+   * @param speed speed over ground in knots; <code>NaN</code> if not available
+   * @param course course over ground in degrees; <code>NaN</code> to use the heading
+   * @param rateOfTurn rate of turn in degrees per minute; <code>NaN</code> if not available
+   * @param coords buffer receiving interleaved x,y; at least twice the buffer size
+   * @return number of vertices written
+   */
+  int generate(double originX, double originY, double xShift, double yShift, double shipWidth, double shipLength,
+      double headingDegrees, double ratio, ShapeTemplate convexHull, double speed, double course, double rateOfTurn, double[] coords) {
+    int n = convexHull.getVertexCount();
+    double metersPerSecond = speed > 0.0 && speed < SafetyDomain.SPEED_UNAVAILABLE ? speed * KNOTS_TO_METERS_PER_SECOND : 0.0;
+    double courseDegrees = course >= 0.0 && course < 360.0 ? course : headingDegrees;
+    double turn = Math.abs(rateOfTurn) < RATE_OF_TURN_LIMIT ? rateOfTurn / 60.0 : 0.0; // degrees per second; NaN fails the test
+
+    if (turn == 0.0 || metersPerSecond == 0.0) {
+      pose(originX, originY, xShift, yShift, shipWidth, shipLength, headingDegrees, ratio, convexHull, coords, 0);
+      if (metersPerSecond == 0.0) {
+        return n;
+      }
+      double distance = metersPerSecond * horizon * ratio;
+      double courseRadians = Math.toRadians(courseDegrees);
+      int count = sweep(coords, n, distance * Math.sin(courseRadians), distance * Math.cos(courseRadians), n);
+      System.arraycopy(coords, 2 * n, coords, 0, 2 * count);
+      return count;
+    }
+
+    // turning track; heading and course change at the rate of turn
+    int poses = getPoseCount();
+    double x = originX;
+    double y = originY;
+    for (int i = 0; i < poses; i++) {
+      double time = Math.min((long) i * step, horizon);
+      pose(x, y, xShift, yShift, shipWidth, shipLength, headingDegrees + turn * time, ratio, convexHull, coords, i * n);
+      if (i + 1 < poses) {
+        double interval = Math.min((long) (i + 1) * step, horizon) - time;
+        double courseRadians = Math.toRadians(courseDegrees + turn * (time + interval / 2.0));
+        double distance = metersPerSecond * interval * ratio;
+        x += distance * Math.sin(courseRadians);
+        y += distance * Math.cos(courseRadians);
+      }
+    }
+    int m = poses * n;
+    int count = GeometryUtility.convexHull(coords, m, m);
+    System.arraycopy(coords, 2 * m, coords, 0, 2 * count);
+    return count;
+  }
+
+  private int getPoseCount() {
+    return (horizon + step - 1) / step + 1;
+  }
+
+  private static void pose(double originX, double originY, double xShift, double yShift, double shipWidth, double shipLength,
+      double headingDegrees, double ratio, ShapeTemplate convexHull, double[] coords, int offset) {
+    double headingRadians = Math.toRadians(headingDegrees);
+    double xShiftRot = xShift * Math.cos(-headingRadians) - yShift * Math.sin(-headingRadians);
+    double yShiftRot = xShift * Math.sin(-headingRadians) + yShift * Math.cos(-headingRadians);
+    GeometryUtility.generateVesselShape(originX + xShiftRot * ratio, originY + yShiftRot * ratio,
+        shipWidth, shipLength, headingDegrees, ratio, convexHull, coords, offset);
+  }
+
+  /**
+   * Sweeps clockwise convex polygon by translation. The vertices farthest
+   * to the left and right of the translation split the ring into the chain
+   * facing the translation, which is moved, and the chain facing away.
+   * @param coords buffer; the polygon at vertex 0
+   * @param n number of polygon vertices
+   * @param dx translation X
+   * @param dy translation Y
+   * @param offset index of the first vertex written
+   * @return number of vertices written
+   */
+  private static int sweep(double[] coords, int n, double dx, double dy, int offset) {
+    int left = 0;
+    int right = 0;
+    double maxSide = Double.NEGATIVE_INFINITY;
+    double minSide = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < n; i++) {
+      double side = dx * coords[2 * i + 1] - dy * coords[2 * i];
+      if (side > maxSide) {
+        maxSide = side;
+        left = i;
+      }
+      if (side < minSide) {
+        minSide = side;
+        right = i;
+      }
+    }
+    if (left == right) {
+      System.arraycopy(coords, 0, coords, 2 * offset, 2 * n);
+      return n;
+    }
+    // clockwise from the left extreme the ring faces the translation up to the right extreme
+    int j = 2 * offset;
+    for (int i = left; ; i = (i + 1) % n) {
+      coords[j++] = coords[2 * i] + dx;
+      coords[j++] = coords[2 * i + 1] + dy;
+      if (i == right) {
+        break;
+      }
+    }
+    for (int i = right; ; i = (i + 1) % n) {
+      coords[j++] = coords[2 * i];
+      coords[j++] = coords[2 * i + 1];
+      if (i == left) {
+        break;
+      }
+    }
+    return j / 2 - offset;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d,%d", horizon, step);
+  }
+}
@@ -0,0 +1,105 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+/**
+ * Ship domain ellipse.
+ * <p>
+ * The ellipse is centered on the vessel with its major axis along the
+ * heading. The semi-major axis is the vessel length times the major factor
+ * plus the speed factor per knot of speed over ground; the semi-minor axis
+ * is the vessel length times the minor factor. Vertices come from a shared
+ * unit circle table, so an ellipse costs one affine transform per vertex.
+ * Instances are immutable.
+ */
+final class SafetyDomain {
+
+  /** AIS speed over ground "not available" (1023 in 1/10 knot). */
+  static final double SPEED_UNAVAILABLE = 102.3;
+
+  private final double majorFactor;
+  private final double minorFactor;
+  private final double speedFactor;
+  private final double[] unitCircle;
+
+  /**
+   * Creates safety domain.
+   * @param segments number of ellipse segments
+   * @param majorFactor semi-major axis in vessel lengths
+   * @param minorFactor semi-minor axis in vessel lengths
+   * @param speedFactor semi-major axis increase in vessel lengths per knot
+   * @throws IllegalArgumentException if the parameters are invalid
+   */
+  SafetyDomain(int segments, double majorFactor, double minorFactor, double speedFactor) {
+    if (segments < 4 || majorFactor <= 0.0 || minorFactor <= 0.0 || speedFactor < 0.0) {
+      throw new IllegalArgumentException(String.format("Invalid safety domain: %d segments, factors %s, %s, %s",
+          segments, majorFactor, minorFactor, speedFactor));
+    }
+    this.majorFactor = majorFactor;
+    this.minorFactor = minorFactor;
+    this.speedFactor = speedFactor;
+    this.unitCircle = GeometryUtility.unitCircle(segments);
+  }
+
+  int getVertexCount() {
+    return unitCircle.length / 2;
+  }
+
+  /**
+   * Checks if the ellipse depends on the speed; such ellipses cannot be
+   * reused by position and heading alone.
+   * @return <code>true</code> if the speed factor is not zero
+   */
+  boolean isSpeedDependent() {
+    return speedFactor > 0.0;
+  }
+
+  /**
+   * Generates ellipse into the coordinate buffer.
+   * @param centerX vessel center X
+   * @param centerY vessel center Y
+   * @param shipLength vessel length in meters
+   * @param speed speed over ground in knots; <code>NaN</code> if not available
+   * @param headingDegrees heading (degrees)
+   * @param ratio map units per meter at the center
+   * @param coords buffer receiving interleaved x,y; at least twice the vertex count
+   * @return number of vertices written
+   */
+  int generate(double centerX, double centerY, double shipLength, double speed, double headingDegrees, double ratio, double[] coords) {
+    double knots = speed >= 0.0 && speed < SPEED_UNAVAILABLE ? speed : 0.0;
+    double semiMajor = shipLength * (majorFactor + speedFactor * knots) * ratio;
+    double semiMinor = shipLength * minorFactor * ratio;
+    // major axis along the heading, minor axis towards starboard; clockwise ring
+    double headingRadians = Math.toRadians(headingDegrees);
+    double sin = Math.sin(headingRadians);
+    double cos = Math.cos(headingRadians);
+    return GeometryUtility.generateEllipse(centerX, centerY,
+        semiMajor * sin, semiMinor * cos, semiMajor * cos, -semiMinor * sin, unitCircle, coords);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d,%s,%s,%s", getVertexCount(), majorFactor, minorFactor, speedFactor);
+  }
+}
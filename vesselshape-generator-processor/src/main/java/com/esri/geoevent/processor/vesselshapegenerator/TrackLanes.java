@@ -0,0 +1,182 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import com.esri.ges.core.geoevent.GeoEvent;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Track partitioned worker lanes.
+ * <p>
+ * Events are hashed by track id onto a fixed set of lanes. Each lane is a
+ * bounded queue drained by a single thread, so events of the same track are
+ * handled in arrival order while different tracks run in parallel. Submitting
+ * to a full lane blocks the caller until the lane catches up or the lanes
+ * shut down. Shutting down first stops accepting events and waits for
+ * submissions in progress, so every accepted event is queued before the
+ * lanes drain.
+ */
+final class TrackLanes {
+
+  private static final Log LOG = LogFactory.getLog(TrackLanes.class);
+  private static final long POLL_INTERVAL = 100; // ms
+
+  /**
+   * Lane event handler.
+   */
+  interface Handler {
+    void handle(GeoEvent ge);
+  }
+
+  private final Lane[] lanes;
+  private final int queueDepth;
+  // cleared when the lanes stop accepting events
+  private volatile boolean running = true;
+  // set once no submission is in progress; lanes exit when closed and empty
+  private volatile boolean closed;
+  private final AtomicInteger submitting = new AtomicInteger();
+
+  TrackLanes(String name, int laneCount, int queueDepth, Handler handler) {
+    this.queueDepth = queueDepth;
+    lanes = new Lane[laneCount];
+    for (int i = 0; i < laneCount; i++) {
+      lanes[i] = new Lane(new ArrayBlockingQueue<GeoEvent>(queueDepth), handler);
+      lanes[i].thread = new Thread(lanes[i], String.format("%s lane %d", name, i));
+      lanes[i].thread.setDaemon(true);
+      lanes[i].thread.start();
+    }
+  }
+
+  int getLaneCount() {
+    return lanes.length;
+  }
+
+  int getQueueDepth() {
+    return queueDepth;
+  }
+
+  /**
+   * Queues event on the lane of its track; blocks while the lane is full.
+   * @param trackId track id
+   * @param ge event
+   * @return <code>false</code> if the lanes are shut down; the event was not queued
+   * @throws InterruptedException if interrupted while waiting for the lane
+   */
+  boolean submit(Object trackId, GeoEvent ge) throws InterruptedException {
+    submitting.incrementAndGet();
+    try {
+      BlockingQueue<GeoEvent> queue = lanes[laneOf(trackId)].queue;
+      while (running) {
+        if (queue.offer(ge, POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+          return true;
+        }
+      }
+      return false;
+    } finally {
+      submitting.decrementAndGet();
+    }
+  }
+
+  /**
+   * Stops accepting events, waits for submissions in progress and drains
+   * the queued events.
+   * @param timeout drain timeout in milliseconds
+   * @return number of queued events discarded because the timeout elapsed
+   */
+  int shutdown(long timeout) {
+    running = false;
+    // a submission that has not seen the flag yet is counted and finishes within the poll interval
+    while (submitting.get() > 0) {
+      try {
+        Thread.sleep(1);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    closed = true;
+    long deadline = System.currentTimeMillis() + timeout;
+    int dropped = 0;
+    for (Lane lane : lanes) {
+      try {
+        lane.thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      if (lane.thread.isAlive()) {
+        lane.thread.interrupt();
+      }
+      dropped += lane.queue.size();
+      lane.queue.clear();
+    }
+    if (dropped > 0) {
+      LOG.warn(String.format("Lane drain timed out; %d event(s) discarded.", dropped));
+    }
+    return dropped;
+  }
+
+  private int laneOf(Object trackId) {
+    if (trackId == null) {
+      return 0;
+    }
+    int h = trackId.hashCode();
+    h ^= (h >>> 16);
+    return (h & 0x7fffffff) % lanes.length;
+  }
+
+  private final class Lane implements Runnable {
+    final BlockingQueue<GeoEvent> queue;
+    final Handler handler;
+    Thread thread;
+
+    Lane(BlockingQueue<GeoEvent> queue, Handler handler) {
+      this.queue = queue;
+      this.handler = handler;
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (!closed || !queue.isEmpty()) {
+          GeoEvent ge = queue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+          if (ge != null) {
+            try {
+              handler.handle(ge);
+            } catch (RuntimeException ex) {
+              // keep the lane alive for the following events
+              LOG.error(ex.getMessage(), ex);
+            }
+          }
+        }
+      } catch (InterruptedException ex) {
+        // drain timed out; just exit
+      }
+    }
+  }
+}
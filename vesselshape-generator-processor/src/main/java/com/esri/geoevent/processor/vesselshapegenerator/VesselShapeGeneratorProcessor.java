@@ -26,98 +26,380 @@ package com.esri.geoevent.processor.vesselshapegenerator;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import com.esri.core.geometry.GeometryEngine;
+import com.esri.core.geometry.Envelope;
 import com.esri.core.geometry.MapGeometry;
 import com.esri.core.geometry.Point;
 import com.esri.core.geometry.SpatialReference;
 import com.esri.ges.core.component.ComponentException;
 import com.esri.ges.core.geoevent.GeoEvent;
+import com.esri.ges.core.geoevent.DefaultFieldDefinition;
+import com.esri.ges.core.geoevent.FieldDefinition;
+import com.esri.ges.core.geoevent.FieldType;
+import com.esri.ges.core.geoevent.GeoEventDefinition;
+import com.esri.ges.core.geoevent.GeoEventPropertyName;
+import com.esri.ges.core.property.Property;
 import com.esri.ges.processor.GeoEventProcessorBase;
 import com.esri.ges.processor.GeoEventProcessorDefinition;
+import com.esri.ges.manager.geoeventdefinition.GeoEventDefinitionManager;
+import com.esri.ges.messaging.EventDestination;
+import com.esri.ges.messaging.EventUpdatable;
+import com.esri.ges.messaging.GeoEventCreator;
+import com.esri.ges.messaging.GeoEventProducer;
+import com.esri.ges.messaging.Messaging;
+import com.esri.ges.messaging.MessagingException;
 import com.esri.core.geometry.Geometry;
-import com.esri.geoevent.processor.vesselshapegenerator.model.Shape;
-import com.esri.geoevent.processor.vesselshapegenerator.provider.Provider;
-import com.esri.geoevent.processor.vesselshapegenerator.provider.ProviderException;
+import com.esri.geoevent.processor.vesselshapegenerator.metrics.ProcessorMetrics;
+import com.esri.geoevent.processor.vesselshapegenerator.metrics.RejectReason;
+import com.esri.geoevent.processor.vesselshapegenerator.metrics.Stage;
+import com.esri.geoevent.processor.vesselshapegenerator.model.ShapeRegistry;
+import com.esri.geoevent.processor.vesselshapegenerator.model.GeneratedShape;
+import com.esri.geoevent.processor.vesselshapegenerator.model.ShapeTemplate;
+import com.esri.geoevent.processor.vesselshapegenerator.provider.ShapeCatalog;
+import com.esri.geoevent.processor.vesselshapegenerator.track.DuplicateFilter;
+import com.esri.geoevent.processor.vesselshapegenerator.track.HullCache;
+import com.esri.geoevent.processor.vesselshapegenerator.track.ReportTimes;
+import com.esri.geoevent.processor.vesselshapegenerator.track.StaticDataStore;
+import com.esri.geoevent.processor.vesselshapegenerator.track.TrailStore;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Observable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-public class VesselShapeGeneratorProcessor extends GeoEventProcessorBase {
+public class VesselShapeGeneratorProcessor extends GeoEventProcessorBase implements GeoEventProducer, EventUpdatable {
 
   private static final Log LOG = LogFactory.getLog(VesselShapeGeneratorProcessor.class);
-  private final List<Provider> shapeProviders;
+  private static final long DRAIN_TIMEOUT = 5000; // ms
+  private static final int MEASURE_FIELD_COUNT = 4;
+  private final ShapeCatalog shapeCatalog;
+  private final Messaging messaging;
+  private final GeoEventDefinitionManager definitionManager;
+  private final GeoEventCreator geoEventCreator;
+  private volatile AugmentedDefinitions augmentedDefinitions;
+  private String augmentSettings;
+  private volatile boolean replaceGeometry = true;
+  private volatile boolean trailOutput;
+  private volatile boolean measureOutput;
+  private GeoEventProducer geoEventProducer;
+  private volatile TrackLanes lanes;
+  private volatile Conflator conflator;
+  private volatile StaticDataStore staticData;
+  private int staticDataCapacity;
+  private int staticDataTtl;
+  private volatile HullCache hullCache;
+  private volatile HullCache.Mode hullCacheMode = HullCache.Mode.OFF;
+  private String hullCacheSettings;
+  private volatile DuplicateFilter duplicateFilter;
+  private volatile DuplicateFilter.Mode duplicateMode = DuplicateFilter.Mode.OFF;
+  private String duplicateSettings;
+  private volatile ReportTimes reportTimes;
+  private volatile AugmentedDefinitions lateDefinitions;
+  private volatile long staleTolerance;
+  private String staleSettings;
   private int outwkid;
+  private CoordinateProjection outputProjection;
+  private volatile CoordinateProjection inputProjection;
+  private volatile AreaOfInterest areaOfInterest;
+  private volatile LevelOfDetail levelOfDetail = LevelOfDetail.FULL;
+  private volatile SafetyDomain safetyDomain;
+  private volatile PredictedFootprint predictedFootprint;
+  private volatile TrailStore trails;
+  private String trailSettings;
+  private volatile VesselValidator validator = new VesselValidator(511, 500.0, 80.0, true);
+  private final ConcurrentMap<String, FieldAccessPlan> accessPlans = new ConcurrentHashMap<>();
+  private final ThreadLocal<double[]> coordinateBuffer = new ThreadLocal<>();
+  private final ThreadLocal<double[]> trailBuffer = new ThreadLocal<>();
+  private final ThreadLocal<double[]> extentBuffer = new ThreadLocal<>();
+  private final ThreadLocal<StaticDataStore.Values> vesselValues = new ThreadLocal<>();
+  private final ProcessorMetrics metrics;
 
-  public VesselShapeGeneratorProcessor(GeoEventProcessorDefinition definition, List<Provider> shapeProviders) throws ComponentException {
+  public VesselShapeGeneratorProcessor(GeoEventProcessorDefinition definition, ShapeCatalog shapeCatalog, Messaging messaging,
+      GeoEventDefinitionManager definitionManager) throws ComponentException {
     super(definition);
-    this.shapeProviders = shapeProviders;
+    this.shapeCatalog = shapeCatalog;
+    this.messaging = messaging;
+    this.definitionManager = definitionManager;
+    this.geoEventCreator = messaging != null ? messaging.createGeoEventCreator() : null;
+    this.metrics = new ProcessorMetrics(shapeCatalog);
   }
 
   @Override
   public boolean isGeoEventMutator() {
-    return true;
+    // in Add Field mode a new event is created and the input stays untouched
+    return replaceGeometry;
   }
 
   @Override
   public void afterPropertiesSet() {
     try {
       outwkid = (Integer) properties.get("wkidout").getValue();
+      outputProjection = CoordinateProjection.create(outwkid);
     } catch (Exception e) {
       LOG.error(e.getMessage());
     }
+    updateOutputMode(getStringProperty("outputMode", "Replace Geometry"), getStringProperty("hullField", "VesselShape"),
+        getIntProperty("trailLength", 0) > 0 ? getStringProperty("trailField", "VesselTrail") : null,
+        getBooleanProperty("shapeMeasures", false));
+    validator = new VesselValidator(getIntProperty("headingUnavailable", 511), getDoubleProperty("maxVesselLength", 500.0),
+        getDoubleProperty("maxVesselWidth", 80.0), getBooleanProperty("courseFallback", true));
+    try {
+      areaOfInterest = AreaOfInterest.parse(getStringProperty("areaOfInterest", null));
+    } catch (IllegalArgumentException e) {
+      LOG.error(e.getMessage());
+      areaOfInterest = null;
+    }
+    try {
+      levelOfDetail = LevelOfDetail.parse(getStringProperty("levelOfDetail", "Full"), getStringProperty("detailLengths", "25,75,200"));
+    } catch (IllegalArgumentException e) {
+      LOG.error(e.getMessage());
+      levelOfDetail = LevelOfDetail.FULL;
+    }
+    updateShapeOutput(getStringProperty("shapeOutput", "Hull"));
+    updateLanes(getIntProperty("laneCount", 0), getIntProperty("laneQueueDepth", 1024));
+    updateConflator(getIntProperty("conflationInterval", 0));
+    updateStaticData(getIntProperty("staticDataCapacity", 262144), getIntProperty("staticDataTtl", 30));
+    updateHullCache(getStringProperty("changeSuppression", "Off"), getIntProperty("changeCacheCapacity", 100000),
+        getDoubleProperty("distanceTolerance", 5.0), getDoubleProperty("angleTolerance", 2.0));
+    updateDuplicateFilter(getStringProperty("duplicateHandling", "Off"), getIntProperty("duplicateCapacity", 131072),
+        getIntProperty("duplicateWindow", 60));
+    updateTrails(getIntProperty("trailLength", 0), getIntProperty("trailDuration", 30), getIntProperty("trailCapacity", 100000));
+    updateReportTimes(getStringProperty("staleReports", "Off"), getIntProperty("staleCapacity", 262144),
+        getIntProperty("staleTolerance", 0));
+    metrics.register(getId() != null ? getId() : Integer.toHexString(System.identityHashCode(this)));
   }
 
-  private boolean hasTag(GeoEvent ge, String tagName) {
-    return ge.getGeoEventDefinition().getTagNames().contains("GEOMETRY");
+  @Override
+  public void shutdown() {
+    updateConflator(0);
+    updateLanes(0, 0);
+    updateOutputMode("Replace Geometry", null, null, false);
+    updateReportTimes("Off", 0, 0);
+    metrics.unregister();
+    super.shutdown();
+  }
+
+  @Override
+  public void setId(String id) {
+    super.setId(id);
+    if (messaging != null) {
+      geoEventProducer = messaging.createGeoEventProducer(new EventDestination(id + ":event"));
+    }
+  }
+
+  public ProcessorMetrics getMetrics() {
+    return metrics;
+  }
+
+  private FieldAccessPlan getAccessPlan(GeoEvent ge) {
+    GeoEventDefinition definition = ge.getGeoEventDefinition();
+    FieldAccessPlan plan = accessPlans.get(definition.getGuid());
+    if (plan == null) {
+      plan = FieldAccessPlan.compile(definition);
+      FieldAccessPlan existing = accessPlans.putIfAbsent(definition.getGuid(), plan);
+      if (existing != null) {
+        plan = existing;
+      }
+    }
+    return plan;
   }
   
-  private boolean hasAllTags(GeoEvent ge, String ... tagNames) {
-    for (String tagName: tagNames) {
-      if (!hasTag(ge, tagName)) {
-        return false;
+  @Override
+  public GeoEvent process(GeoEvent ge) throws Exception {
+    Conflator pending = conflator;
+    TrackLanes current = lanes;
+    if (pending == null && current == null) {
+      return generate(ge);
+    }
+    FieldAccessPlan plan = getAccessPlan(ge);
+    Object trackId = plan.getMissingTag(true) == null ? plan.getTrackId(ge) : null;
+    if (pending != null && trackId != null) {
+      // generated and sent by the conflation timer
+      if (pending.offer(trackId, ge)) {
+        metrics.eventConflated();
       }
+      return null;
     }
-    return true;
+    return dispatch(trackId, ge);
   }
   
-  private boolean validate(GeoEvent ge) {
-    return true;
+  /**
+   * Generates vessel shape on the lane of the track or, without lanes, on
+   * the calling thread.
+   * @param trackId track id
+   * @param ge event
+   * @return event with the vessel shape; <code>null</code> if rejected or
+   * queued on a lane
+   */
+  private GeoEvent dispatch(Object trackId, GeoEvent ge) throws Exception {
+    TrackLanes current = lanes;
+    while (current != null) {
+      if (current.submit(trackId, ge)) {
+        // generated asynchronously and sent by the lane
+        return null;
+      }
+      // the lanes are being replaced; wait until the previous ones are drained
+      current = getLanes();
+    }
+    return generate(ge);
+  }
+
+  private synchronized TrackLanes getLanes() {
+    return lanes;
   }
   
-  @Override
-  public GeoEvent process(GeoEvent ge) throws Exception {
+  /**
+   * Generates vessel shape of the event.
+   * @param ge event
+   * @return event with the vessel shape; <code>null</code> if rejected
+   */
+  private GeoEvent generate(GeoEvent ge) throws Exception {
 
-    LOG.debug(String.format("Received an event: %s", ge.toString()));
+    metrics.eventIn();
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(String.format("Received an event: %s", ge));
+    }
     try {
-      if (!hasAllTags(ge, "GEOMETRY", "TRACK_ID", "VESSEL_TYPE", "VESSEL_BEARING", "VESSEL_BOW", "VESSEL_PORT", "VESSEL_STARBOARD", "VESSEL_STERN")) {
-        LOG.debug(String.format("Event rejected due to missing tag(s)."));
-        return null;
+      long start = System.nanoTime();
+      FieldAccessPlan plan = getAccessPlan(ge);
+      String missingTag = plan.getMissingTag(staticData != null);
+      if (missingTag != null) {
+        return reject(RejectReason.MISSING_TAG, missingTag);
       }
       
       MapGeometry geo = ge.getGeometry();
       SpatialReference srIn = geo.getSpatialReference();
       if (!(geo.getGeometry() instanceof Point)) {
-        LOG.debug(String.format("Event rejected due to missing geometry."));
-        return null;
+        return reject(RejectReason.NON_POINT_GEOMETRY, null);
       }
       Point originGeo = (Point)geo.getGeometry();
+      AreaOfInterest area = areaOfInterest;
+      if (area != null && !area.contains(originGeo.getX(), originGeo.getY())) {
+        return reject(RejectReason.OUTSIDE_AREA_OF_INTEREST, null);
+      }
+      long trackKey = StaticDataStore.key(plan.getTrackId(ge));
+      long reportTime = plan.getTimeStart(ge);
+      long now = System.currentTimeMillis();
+      
+      // drop or pass reports older than the last one emitted for the track
+      ReportTimes times = trackKey >= 0 && reportTime != Long.MIN_VALUE ? reportTimes : null;
+      if (times != null && times.isStale(trackKey, reportTime, staleTolerance)) {
+        return late(ge);
+      }
       
-      // read vessel properties
-      String vesselType = ge.getField("VESSEL_TYPE")!=null? ge.getField("VESSEL_TYPE").toString(): null;
-      Double vesselBear = ge.getField("VESSEL_BEARING") instanceof Number? ((Number)ge.getField("VESSEL_BEARING")).doubleValue(): null;
+      // drop or reuse copies of a report received more than once
+      DuplicateFilter duplicates = trackKey >= 0 ? duplicateFilter : null;
+      long fingerprint = 0;
+      int reportSlot = -1;
+      if (duplicates != null) {
+        if (reportTime != Long.MIN_VALUE) {
+          fingerprint = DuplicateFilter.fingerprint(trackKey, reportTime, originGeo.getX(), originGeo.getY());
+          reportSlot = duplicates.record(fingerprint, now);
+          if (reportSlot < 0) {
+            metrics.duplicate();
+            GeneratedShape first = duplicateMode == DuplicateFilter.Mode.REUSE ? duplicates.getShape(~reportSlot, fingerprint) : null;
+            if (first == null) {
+              return null;
+            }
+            return emit(ge, first.copy(), getTrail(trackKey, now));
+          }
+        }
+      }
       
-      Double vesselBow   = ge.getField("VESSEL_BOW") instanceof Number? ((Number)ge.getField("VESSEL_BOW")).doubleValue(): null;               // top
-      Double vesselStern = ge.getField("VESSEL_STERN") instanceof Number? ((Number)ge.getField("VESSEL_STERN")).doubleValue(): null;           // bottom
-      Double vesselPort  = ge.getField("VESSEL_PORT") instanceof Number? ((Number)ge.getField("VESSEL_PORT")).doubleValue(): null;             // left
-      Double vesselStar  = ge.getField("VESSEL_STARBOARD") instanceof Number? ((Number)ge.getField("VESSEL_STARBOARD")).doubleValue(): null;   // right
+      // read vessel properties; complete position reports from static data
+      StaticDataStore.Values vessel = getVesselValues();
+      vessel.type      = plan.getVesselType(ge);
+      vessel.bow       = plan.getBow(ge);
+      vessel.stern     = plan.getStern(ge);
+      vessel.port      = plan.getPort(ge);
+      vessel.starboard = plan.getStarboard(ge);
       
-      if (vesselBow==null || vesselStern == null || vesselPort == null || vesselStar == null) {
-        LOG.debug(String.format("Event rejected due to missing dimensions."));
-        return null;
+      // validate before any geometry work; implausible dimensions may still be completed from static data
+      VesselValidator rules = validator;
+      RejectReason invalidDimensions = rules.clearInvalidDimensions(vessel);
+      mergeStaticData(trackKey, vessel);
+      if (!vessel.hasDimensions()) {
+        return reject(invalidDimensions != null ? invalidDimensions : RejectReason.MISSING_DIMENSIONS, null);
       }
+      double vesselBear = rules.resolveHeading(plan.getBearing(ge), plan.getCourse(ge));
+      if (Double.isNaN(vesselBear)) {
+        return reject(RejectReason.MISSING_HEADING, null);
+      }
+      
+      Object vesselType = vessel.type;
+      double vesselBow   = vessel.bow;         // top
+      double vesselStern = vessel.stern;       // bottom
+      double vesselPort  = vessel.port;        // left
+      double vesselStar  = vessel.starboard;   // right
       
       // calculate vessel length and width
       double shipLength = vesselBow + vesselStern;
       double shipWidth = vesselPort + vesselStar;
       
+      // obtain vessel shape; use default if shape unavailable. The safety domain needs no shape
+      SafetyDomain domain = safetyDomain;
+      PredictedFootprint footprint = domain == null ? predictedFootprint : null;
+      ShapeRegistry registry = shapeCatalog.getRegistry();
+      ShapeTemplate shape = null;
+      if (domain == null) {
+        shape = registry.get(vesselType);
+        if (shape==null) {
+          return reject(RejectReason.MISSING_SHAPE, null);
+        }
+        if (shape == registry.getDefault() && !registry.isDefined(vesselType)) {
+          metrics.defaultShapeFallback();
+        }
+        shape = shape.getLevel(levelOfDetail.select(shipLength));
+        if (footprint != null) {
+          shape = shape.getConvexHull();
+        }
+      }
+      long time = System.nanoTime();
+      metrics.record(Stage.EXTRACTION, time - start);
+      start = time;
+      
+      // project center into the buffer coordinate system
+      // one more vertex for the centroid
+      double[] coords = getCoordinateBuffer(1 + (domain != null ? domain.getVertexCount()
+          : footprint != null ? footprint.getBufferSize(shape.getVertexCount()) : shape.getVertexCount()));
+      coords[0] = originGeo.getX();
+      coords[1] = originGeo.getY();
+      getInputProjection(srIn).toWebMercator(coords, 1);
+      time = System.nanoTime();
+      metrics.record(Stage.INPUT_PROJECTION, time - start);
+      start = time;
+      
+      // calculate ratio
+      double ratio = WebMercatorScale.ratio(coords[1]);
+      time = System.nanoTime();
+      metrics.record(Stage.RATIO, time - start);
+      start = time;
+      
+      // reuse previous hull if the vessel has not moved or turned; speed dependent shapes vary without either
+      boolean speedDependent = footprint != null || (domain != null && domain.isSpeedDependent());
+      HullCache cache = trackKey >= 0 && !speedDependent ? hullCache : null;
+      double originX = coords[0];
+      double originY = coords[1];
+      if (cache != null) {
+        GeneratedShape cached = cache.find(trackKey, originX, originY, ratio, vesselBear, vessel, registry.getVersion(), now);
+        if (cached != null) {
+          metrics.hullCacheHit();
+          if (hullCacheMode == HullCache.Mode.SUPPRESS) {
+            return null;
+          }
+          if (reportSlot >= 0) {
+            duplicates.setShape(reportSlot, fingerprint, cached);
+          }
+          if (times != null) {
+            times.update(trackKey, reportTime);
+          }
+          return emit(ge, cached.copy(), getTrail(trackKey, now));
+        }
+        metrics.hullCacheMiss();
+      }
+      
       // calculate necessary shift considering GPS location
       double xShift = shipWidth/2.0 - vesselPort;
       double yShift = shipLength/2.0 - vesselStern;
@@ -127,43 +409,595 @@ public class VesselShapeGeneratorProcessor extends GeoEventProcessorBase {
       double xShiftRot = xShift * Math.cos(-vesselBearRad) - yShift * Math.sin(-vesselBearRad);
       double yShiftRot = xShift * Math.sin(-vesselBearRad) + yShift * Math.cos(-vesselBearRad);
       
-      // calculate ratio
-      SpatialReference srBuffer = SpatialReference.create(102100);
-      SpatialReference srOut = SpatialReference.create(outwkid);
-      Point centerProj = (Point) GeometryEngine.project(originGeo, srIn, srBuffer);
-      double ratio = GeometryUtility.calculateRation(centerProj, shipLength);
-      
       // establish new vessel center
-      centerProj.setXY(centerProj.getX() + xShiftRot*ratio, centerProj.getY() + yShiftRot*ratio);
+      double centerX = coords[0] + xShiftRot*ratio;
+      double centerY = coords[1] + yShiftRot*ratio;
       
-      // obtain vessel shape; use default if shape unavailable
-      Shape shape = readShape(vesselType);
-      if (shape==null) {
-        shape = readShape("0");
+      // generate vessel shape, safety domain or predicted footprint
+      int count;
+      if (domain != null) {
+        count = domain.generate(centerX, centerY, shipLength, plan.getSpeed(ge), vesselBear, ratio, coords);
+      } else if (footprint != null) {
+        count = footprint.generate(originX, originY, xShift, yShift, shipWidth, shipLength, vesselBear, ratio, shape,
+            plan.getSpeed(ge), plan.getCourse(ge), plan.getRateOfTurn(ge), coords);
+      } else {
+        count = GeometryUtility.generateVesselShape(centerX, centerY, shipWidth, shipLength, vesselBear, ratio, shape, coords);
+      }
+      time = System.nanoTime();
+      metrics.record(Stage.HULL_BUILD, time - start);
+      start = time;
+
+      // place the centroid like a hull vertex, after the hull
+      boolean measure = measureOutput;
+      boolean hullMeasures = measure && domain == null && footprint == null;
+      if (hullMeasures) {
+        GeometryUtility.generateVesselShape(centerX, centerY, shipWidth, shipLength, vesselBear, ratio, shape.getCentroid(), coords, count);
       }
-      
-      // generate vessel shape
-      Geometry vesselShape = GeometryUtility.generateVesselShape(centerProj, shipWidth, shipLength, vesselBear, shape);
 
-      // project and store vessel shape
-      Geometry vesselShapeOut = GeometryEngine.project(vesselShape, srBuffer, srOut);
-      MapGeometry outMapGeo = new MapGeometry(vesselShapeOut, srOut);
-      ge.setGeometry(outMapGeo);
+      // project and store vessel shape; the envelope is taken from the output vertices
+      outputProjection.fromWebMercator(coords, hullMeasures ? count + 1 : count);
+      SpatialReference srOut = outputProjection.getSpatialReference();
+      GeneratedShape generated;
+      if (measure) {
+        double[] extent = getExtentBuffer();
+        Geometry vesselShapeOut = GeometryUtility.toPolygon(coords, count, extent);
+        generated = new GeneratedShape(new MapGeometry(vesselShapeOut, srOut),
+            new MapGeometry(new Envelope(extent[0], extent[1], extent[2], extent[3]), srOut),
+            hullMeasures ? shape.getArea(shipLength, shipWidth) : Double.NaN,
+            hullMeasures ? shape.getPerimeter(shipLength, shipWidth) : Double.NaN,
+            hullMeasures ? new MapGeometry(new Point(coords[2 * count], coords[2 * count + 1]), srOut) : null);
+      } else {
+        Geometry vesselShapeOut = GeometryUtility.toPolygon(coords, count);
+        generated = new GeneratedShape(new MapGeometry(vesselShapeOut, srOut), null, Double.NaN, Double.NaN, null);
+      }
+      metrics.record(Stage.OUTPUT_PROJECTION, System.nanoTime() - start);
+      if (cache != null) {
+        cache.store(trackKey, originX, originY, vesselBear, vessel, registry.getVersion(), generated, now);
+      }
+      if (reportSlot >= 0) {
+        duplicates.setShape(reportSlot, fingerprint, generated);
+      }
+      if (times != null) {
+        times.update(trackKey, reportTime);
+      }
       
-      return ge;
+      // extend the trail of the track by the segment swept since its last pose
+      TrailStore trail = trackKey >= 0 && shape != null ? trails : null;
+      MapGeometry trailGeo = trail != null ? appendTrail(trail, trackKey, centerX, centerY, shipWidth, shipLength, vesselBear, ratio,
+          shape.getConvexHull(), reportTime != Long.MIN_VALUE ? reportTime : now, now) : null;
+      // the cache and the duplicate filter keep the generated shape for later reports
+      return emit(ge, cache != null || reportSlot >= 0 ? generated.copy() : generated, trailGeo);
     } catch (Exception e) {
       LOG.error(e.getMessage());
       throw e;
     }
   }
   
-  private Shape readShape(String vesselType) throws ProviderException{
-    for (Provider sp : shapeProviders) {
-      Shape shape = sp.readShapes().get(vesselType);
-      if (shape!=null) {
-        return shape;
+  /**
+   * Outputs the event with its vessel shape; either replaces the event
+   * geometry or creates an event of the augmented definition carrying the
+   * shape in the hull field, the trail in the trail field and the measures
+   * in the measure fields.
+   * @param ge input event
+   * @param shape vessel shape and its measures
+   * @param trail trail of the track; <code>null</code> if not available
+   * @return output event
+   */
+  private GeoEvent emit(GeoEvent ge, GeneratedShape shape, MapGeometry trail) throws Exception {
+    AugmentedDefinitions augmented = augmentedDefinitions;
+    boolean replace = replaceGeometry;
+    GeoEvent out;
+    if (replace) {
+      ge.setGeometry(shape.getGeometry());
+    }
+    if (augmented == null) {
+      out = ge;
+    } else {
+      // extra fields: the hull unless replacing the geometry, the trail, then the measures
+      Object[] extra = new Object[augmented.getExtraFields().size()];
+      int index = 0;
+      if (!replace && index < extra.length) {
+        extra[index++] = shape.getGeometry();
+      }
+      if (trailOutput && index < extra.length) {
+        extra[index++] = trail;
       }
+      if (measureOutput && index + MEASURE_FIELD_COUNT <= extra.length) {
+        extra[index++] = shape.getEnvelope();
+        extra[index++] = Double.isNaN(shape.getArea()) ? null : shape.getArea();
+        extra[index++] = Double.isNaN(shape.getPerimeter()) ? null : shape.getPerimeter();
+        extra[index] = shape.getCentroid();
+      }
+      out = augment(augmented, ge, extra);
+    }
+    metrics.eventOut();
+    return out;
+  }
+
+  /**
+   * Rejects a report older than the last shape of its track; in Pass mode
+   * the report is output with its point geometry as an event of the late
+   * report definition whose flag field is set.
+   * @param ge input event
+   * @return late report event or <code>null</code> if dropped
+   */
+  private GeoEvent late(GeoEvent ge) throws Exception {
+    metrics.rejected(RejectReason.STALE_REPORT);
+    AugmentedDefinitions late = lateDefinitions;
+    return late != null ? augment(late, ge, new Object[] {Boolean.TRUE}) : null;
+  }
+
+  /**
+   * Creates an event of the augmented definition holding the input fields
+   * and properties followed by the extra values.
+   * @param augmented augmented definitions
+   * @param ge input event
+   * @param extra extra field values
+   * @return new event
+   */
+  private GeoEvent augment(AugmentedDefinitions augmented, GeoEvent ge, Object[] extra) throws Exception {
+    GeoEventDefinition outDefinition = augmented.get(ge.getGeoEventDefinition());
+    GeoEvent out = geoEventCreator.create(outDefinition.getGuid(), new Object[] {ge.getAllFields(), extra});
+    for (Map.Entry<GeoEventPropertyName, Object> property : ge.getProperties().entrySet()) {
+      out.setProperty(property.getKey(), property.getValue());
+    }
+    return out;
+  }
+  
+  /**
+   * Sweeps the convex hull from the last pose of the track to the new pose
+   * and appends the swept segment to the trail.
+   * @param store trail store
+   * @param key track key
+   * @param centerX vessel center X
+   * @param centerY vessel center Y
+   * @param shipWidth ship width
+   * @param shipLength ship length
+   * @param bearing bearing in degrees
+   * @param ratio map units per meter at the center
+   * @param convexHull convex hull of the shape
+   * @param time report time in milliseconds
+   * @param now current time in milliseconds
+   * @return trail polygon
+   */
+  private MapGeometry appendTrail(TrailStore store, long key, double centerX, double centerY, double shipWidth, double shipLength,
+      double bearing, double ratio, ShapeTemplate convexHull, long time, long now) {
+    double[] previous = store.getPose(key, now);
+    int m = previous != null ? previous.length / 2 : 0;
+    int n = convexHull.getVertexCount();
+    double[] buffer = getTrailBuffer(2 * (m + n));
+    if (previous != null) {
+      System.arraycopy(previous, 0, buffer, 0, 2 * m);
+    }
+    GeometryUtility.generateVesselShape(centerX, centerY, shipWidth, shipLength, bearing, ratio, convexHull, buffer, m);
+    double[] pose = Arrays.copyOfRange(buffer, 2 * m, 2 * (m + n));
+    int count = n;
+    if (previous != null) {
+      count = GeometryUtility.convexHull(buffer, m + n, m + n);
+      System.arraycopy(buffer, 2 * (m + n), buffer, 0, 2 * count);
+    }
+    outputProjection.fromWebMercator(buffer, count);
+    return store.append(key, pose, Arrays.copyOf(buffer, 2 * count), time, outputProjection.getSpatialReference(), now);
+  }
+
+  private MapGeometry getTrail(long key, long now) {
+    TrailStore store = trails;
+    return store != null && key >= 0 ? store.getGeometry(key, now) : null;
+  }
+
+  private GeoEvent reject(RejectReason reason, String detail) {
+    metrics.rejected(reason);
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(String.format("Event rejected: %s%s.", reason, detail != null ? " " + detail : ""));
     }
     return null;
   }
+  
+  /**
+   * Replaces the lanes if the configuration changed. The previous lanes stop
+   * accepting events and are drained before the new lanes are published, so
+   * no track is generated by two lanes at once; events submitted meanwhile
+   * wait for the new lanes.
+   * @param laneCount number of lanes; 0 to generate on the delivering thread
+   * @param queueDepth lane queue capacity
+   */
+  private synchronized void updateLanes(int laneCount, int queueDepth) {
+    TrackLanes current = lanes;
+    if (current == null ? laneCount <= 0 : current.getLaneCount() == laneCount && current.getQueueDepth() == queueDepth) {
+      return;
+    }
+    if (current != null) {
+      current.shutdown(DRAIN_TIMEOUT);
+    }
+    lanes = laneCount > 0 ? new TrackLanes(String.format("Vessel shape generator %s", getId()), laneCount, Math.max(1, queueDepth), new LaneHandler()) : null;
+  }
+
+  /**
+   * Switches between replacing the geometry and adding the hull field and
+   * adds the trail field; augmented definitions of the previous
+   * configuration are removed.
+   * @param mode <code>Replace Geometry</code> or <code>Add Field</code>
+   * @param hullField name of the hull field
+   * @param trailField name of the trail field; <code>null</code> without trails
+   * @param measures <code>true</code> to add the envelope, area, perimeter and centroid fields
+   */
+  private synchronized void updateOutputMode(String mode, String hullField, String trailField, boolean measures) {
+    boolean addField = "Add Field".equalsIgnoreCase(mode);
+    if (!addField && !"Replace Geometry".equalsIgnoreCase(mode)) {
+      LOG.error(String.format("Invalid output mode: %s", mode));
+    }
+    if ((addField || trailField != null || measures) && (definitionManager == null || geoEventCreator == null)) {
+      LOG.error("Add Field output mode, trails and measures require the GeoEvent definition manager and messaging services.");
+      addField = false;
+      trailField = null;
+      measures = false;
+    }
+    String settings = addField || trailField != null || measures
+        ? String.format("%s,%s,%s", addField ? hullField : null, trailField, measures) : null;
+    if (settings == null ? augmentSettings == null : settings.equals(augmentSettings)) {
+      return;
+    }
+    augmentSettings = settings;
+    AugmentedDefinitions current = augmentedDefinitions;
+    AugmentedDefinitions next = null;
+    if (settings != null) {
+      try {
+        List<FieldDefinition> extraFields = new ArrayList<>();
+        if (addField) {
+          extraFields.add(new DefaultFieldDefinition(hullField, FieldType.Geometry));
+        }
+        if (trailField != null) {
+          extraFields.add(new DefaultFieldDefinition(trailField, FieldType.Geometry));
+        }
+        if (measures) {
+          extraFields.add(new DefaultFieldDefinition("VesselEnvelope", FieldType.Geometry));
+          extraFields.add(new DefaultFieldDefinition("VesselArea", FieldType.Double));
+          extraFields.add(new DefaultFieldDefinition("VesselPerimeter", FieldType.Double));
+          extraFields.add(new DefaultFieldDefinition("VesselCentroid", FieldType.Geometry));
+        }
+        next = new AugmentedDefinitions(definitionManager, getId(), "_VesselShape", extraFields);
+      } catch (Exception e) {
+        LOG.error(e.getMessage());
+      }
+    }
+    trailOutput = next != null && trailField != null;
+    measureOutput = next != null && measures;
+    augmentedDefinitions = next;
+    replaceGeometry = !addField || next == null;
+    if (current != null) {
+      current.destroy();
+    }
+  }
+
+  /**
+   * Selects the generated geometry.
+   * @param shapeOutput <code>Hull</code>, <code>Safety Domain</code> or <code>Predicted Footprint</code>
+   */
+  private void updateShapeOutput(String shapeOutput) {
+    SafetyDomain domain = null;
+    PredictedFootprint footprint = null;
+    if ("Predicted Footprint".equalsIgnoreCase(shapeOutput)) {
+      try {
+        footprint = new PredictedFootprint(getIntProperty("footprintHorizon", 600), getIntProperty("footprintStep", 60));
+      } catch (IllegalArgumentException e) {
+        LOG.error(e.getMessage());
+      }
+    } else if ("Safety Domain".equalsIgnoreCase(shapeOutput)) {
+      try {
+        domain = new SafetyDomain(getIntProperty("domainSegments", 64), getDoubleProperty("domainMajorFactor", 4.0),
+            getDoubleProperty("domainMinorFactor", 1.6), getDoubleProperty("domainSpeedFactor", 0.1));
+      } catch (IllegalArgumentException e) {
+        LOG.error(e.getMessage());
+      }
+    } else if (!"Hull".equalsIgnoreCase(shapeOutput)) {
+      LOG.error(String.format("Invalid output shape: %s", shapeOutput));
+    }
+    safetyDomain = domain;
+    predictedFootprint = footprint;
+  }
+
+  /**
+   * Replaces the conflator if the interval changed; events pending in the
+   * previous conflator are flushed, and events still offered to it are
+   * generated on the offering thread.
+   * @param interval conflation interval in milliseconds; 0 disables conflation
+   */
+  private synchronized void updateConflator(int interval) {
+    Conflator current = conflator;
+    if (current == null ? interval <= 0 : current.getInterval() == interval) {
+      return;
+    }
+    conflator = interval > 0 ? new Conflator(String.format("Vessel shape generator %s conflation", getId()), interval, new ConflationHandler()) : null;
+    if (current != null) {
+      current.shutdown();
+    }
+  }
+
+  /**
+   * Updates the static data store from the event values, then fills the
+   * values the event is missing from the store.
+   * @param key track key
+   * @param vessel event values
+   */
+  private void mergeStaticData(long key, StaticDataStore.Values vessel) {
+    StaticDataStore store = staticData;
+    if (store == null || key < 0) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    boolean hasDimensions = vessel.hasDimensions();
+    if (hasDimensions || vessel.type != null) {
+      store.update(key, vessel, now);
+    }
+    if ((!hasDimensions || vessel.type == null) && store.complete(key, vessel, now)) {
+      metrics.staticDataCompleted();
+    }
+  }
+
+  /**
+   * Replaces the static data store if the configuration changed.
+   * @param capacity maximum number of tracks
+   * @param ttl time to live in minutes; 0 disables the store
+   */
+  private synchronized void updateStaticData(int capacity, int ttl) {
+    if (staticData != null && staticDataCapacity == capacity && staticDataTtl == ttl) {
+      return;
+    }
+    staticDataCapacity = capacity;
+    staticDataTtl = ttl;
+    staticData = ttl > 0 && capacity > 0 ? new StaticDataStore(capacity, ttl * 60000L) : null;
+  }
+
+  /**
+   * Replaces the hull cache if the configuration changed; a new output
+   * spatial reference, level of detail, output shape or measure output also
+   * invalidates the cached hulls.
+   * @param mode cache mode; <code>Off</code>, <code>Reuse</code> or <code>Suppress</code>
+   * @param capacity maximum number of tracks
+   * @param distanceTolerance position tolerance in meters
+   * @param angleTolerance bearing tolerance in degrees
+   */
+  private synchronized void updateHullCache(String mode, int capacity, double distanceTolerance, double angleTolerance) {
+    HullCache.Mode cacheMode;
+    try {
+      cacheMode = HullCache.Mode.valueOf(mode.trim().toUpperCase());
+    } catch (IllegalArgumentException e) {
+      LOG.error(String.format("Invalid change suppression: %s", mode));
+      cacheMode = HullCache.Mode.OFF;
+    }
+    String settings = String.format("%s,%d,%s,%s,%d,%s,%s,%s,%s", cacheMode, capacity, distanceTolerance, angleTolerance, outwkid, levelOfDetail, safetyDomain, predictedFootprint, measureOutput);
+    if (settings.equals(hullCacheSettings)) {
+      return;
+    }
+    hullCacheSettings = settings;
+    hullCache = cacheMode != HullCache.Mode.OFF && capacity > 0 ? new HullCache(capacity, distanceTolerance, angleTolerance) : null;
+    hullCacheMode = cacheMode;
+  }
+
+  /**
+   * Replaces the duplicate filter if the configuration changed.
+   * @param mode duplicate handling; <code>Off</code>, <code>Drop</code> or <code>Reuse</code>
+   * @param capacity number of remembered reports
+   * @param window time window in seconds
+   */
+  private synchronized void updateDuplicateFilter(String mode, int capacity, int window) {
+    DuplicateFilter.Mode filterMode;
+    try {
+      filterMode = DuplicateFilter.Mode.valueOf(mode.trim().toUpperCase());
+    } catch (IllegalArgumentException e) {
+      LOG.error(String.format("Invalid duplicate handling: %s", mode));
+      filterMode = DuplicateFilter.Mode.OFF;
+    }
+    String settings = String.format("%s,%d,%d,%d,%s,%s,%s,%s", filterMode, capacity, window, outwkid, levelOfDetail, safetyDomain, predictedFootprint, measureOutput);
+    if (settings.equals(duplicateSettings)) {
+      return;
+    }
+    duplicateSettings = settings;
+    duplicateFilter = filterMode != DuplicateFilter.Mode.OFF && capacity > 0 && window > 0 ? new DuplicateFilter(capacity, window * 1000L) : null;
+    duplicateMode = filterMode;
+  }
+
+  /**
+   * Replaces the trail store if the configuration changed; a new output
+   * spatial reference also drops the trails.
+   * @param length maximum number of segments per track; 0 disables trails
+   * @param duration maximum age of a segment in minutes; 0 keeps segments regardless of age
+   * @param capacity maximum number of tracks
+   */
+  private synchronized void updateTrails(int length, int duration, int capacity) {
+    String settings = String.format("%d,%d,%d,%d", length, duration, capacity, outwkid);
+    if (settings.equals(trailSettings)) {
+      return;
+    }
+    trailSettings = settings;
+    trails = length > 0 && capacity > 0 ? new TrailStore(capacity, length, duration * 60000L) : null;
+  }
+
+  /**
+   * Replaces the report time map if the configuration changed. Pass mode
+   * registers the late report definitions; the definitions of the previous
+   * configuration are removed.
+   * @param mode stale report handling; <code>Off</code>, <code>Drop</code> or <code>Pass</code>
+   * @param capacity maximum number of tracks
+   * @param tolerance accepted lateness in seconds
+   */
+  private synchronized void updateReportTimes(String mode, int capacity, int tolerance) {
+    String settings = String.format("%s,%d", mode, capacity);
+    staleTolerance = tolerance * 1000L;
+    if (settings.equals(staleSettings)) {
+      return;
+    }
+    staleSettings = settings;
+    boolean pass = "Pass".equalsIgnoreCase(mode);
+    boolean enabled = pass || "Drop".equalsIgnoreCase(mode);
+    if (!enabled && !"Off".equalsIgnoreCase(mode)) {
+      LOG.error(String.format("Invalid stale report handling: %s", mode));
+    }
+    if (pass && (definitionManager == null || geoEventCreator == null)) {
+      LOG.error("Passing late reports requires the GeoEvent definition manager and messaging services; late reports are dropped.");
+      pass = false;
+    }
+    AugmentedDefinitions current = lateDefinitions;
+    AugmentedDefinitions next = null;
+    if (pass && capacity > 0) {
+      try {
+        next = new AugmentedDefinitions(definitionManager, getId(), "_LateReport",
+            Collections.<FieldDefinition>singletonList(new DefaultFieldDefinition("LateReport", FieldType.Boolean)));
+      } catch (Exception e) {
+        LOG.error(e.getMessage());
+      }
+    }
+    lateDefinitions = next;
+    reportTimes = enabled && capacity > 0 ? new ReportTimes(capacity) : null;
+    if (current != null) {
+      current.destroy();
+    }
+  }
+
+  private String getStringProperty(String name, String defaultValue) {
+    Property property = properties != null ? properties.get(name) : null;
+    Object value = property != null ? property.getValue() : null;
+    return value != null ? value.toString() : defaultValue;
+  }
+
+  private double getDoubleProperty(String name, double defaultValue) {
+    Property property = properties != null ? properties.get(name) : null;
+    Object value = property != null ? property.getValue() : null;
+    return value instanceof Number ? ((Number) value).doubleValue() : defaultValue;
+  }
+
+  private boolean getBooleanProperty(String name, boolean defaultValue) {
+    Property property = properties != null ? properties.get(name) : null;
+    Object value = property != null ? property.getValue() : null;
+    return value instanceof Boolean ? (Boolean) value : value != null ? Boolean.parseBoolean(value.toString()) : defaultValue;
+  }
+
+  private int getIntProperty(String name, int defaultValue) {
+    Property property = properties != null ? properties.get(name) : null;
+    Object value = property != null ? property.getValue() : null;
+    return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+  }
+
+  @Override
+  public void send(GeoEvent ge) throws MessagingException {
+    if (geoEventProducer != null && ge != null) {
+      geoEventProducer.send(ge);
+    }
+  }
+
+  @Override
+  public EventDestination getEventDestination() {
+    return geoEventProducer != null ? geoEventProducer.getEventDestination() : null;
+  }
+
+  @Override
+  public List<EventDestination> getEventDestinations() {
+    return geoEventProducer != null ? Arrays.asList(geoEventProducer.getEventDestination()) : null;
+  }
+
+  @Override
+  public void disconnect() {
+    if (geoEventProducer != null) {
+      geoEventProducer.disconnect();
+    }
+  }
+
+  @Override
+  public boolean isConnected() {
+    return geoEventProducer != null && geoEventProducer.isConnected();
+  }
+
+  @Override
+  public String getStatusDetails() {
+    return geoEventProducer != null ? geoEventProducer.getStatusDetails() : "";
+  }
+
+  @Override
+  public void setup() throws MessagingException {
+  }
+
+  @Override
+  public void init() throws MessagingException {
+  }
+
+  @Override
+  public void update(Observable o, Object arg) {
+  }
+  
+  private CoordinateProjection getInputProjection(SpatialReference srIn) {
+    CoordinateProjection projection = inputProjection;
+    if (projection == null || !projection.accepts(srIn)) {
+      projection = CoordinateProjection.create(srIn);
+      inputProjection = projection;
+    }
+    return projection;
+  }
+  
+  private StaticDataStore.Values getVesselValues() {
+    StaticDataStore.Values values = vesselValues.get();
+    if (values == null) {
+      values = new StaticDataStore.Values();
+      vesselValues.set(values);
+    }
+    return values;
+  }
+  
+  private double[] getExtentBuffer() {
+    double[] extent = extentBuffer.get();
+    if (extent == null) {
+      extent = new double[4];
+      extentBuffer.set(extent);
+    }
+    return extent;
+  }
+
+  private double[] getTrailBuffer(int vertexCount) {
+    double[] coords = trailBuffer.get();
+    if (coords == null || coords.length < vertexCount * 2) {
+      coords = new double[vertexCount * 2];
+      trailBuffer.set(coords);
+    }
+    return coords;
+  }
+
+  private double[] getCoordinateBuffer(int vertexCount) {
+    double[] coords = coordinateBuffer.get();
+    if (coords == null || coords.length < vertexCount * 2) {
+      coords = new double[vertexCount * 2];
+      coordinateBuffer.set(coords);
+    }
+    return coords;
+  }
+
+  /**
+   * Generates and sends events flushed by the conflator.
+   */
+  private class ConflationHandler implements Conflator.Handler {
+
+    @Override
+    public void handle(Object trackId, GeoEvent ge) {
+      try {
+        send(dispatch(trackId, ge));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (Exception e) {
+        LOG.error(e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Generates and sends events taken from a lane.
+   */
+  private class LaneHandler implements TrackLanes.Handler {
+
+    @Override
+    public void handle(GeoEvent ge) {
+      try {
+        send(generate(ge));
+      } catch (Exception e) {
+        LOG.error(e.getMessage());
+      }
+    }
+  }
 }
@@ -53,7 +53,206 @@ public class VesselShapeGeneratorProcessorDefinition extends
 					PropertyType.Integer, 102100, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_OUTPUT_WKID}",
 					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_OUTPUT_WKID}", true, false);
 			propertyDefinitions.put(procWKIDOut.getPropertyName(), procWKIDOut);
+
+			PropertyDefinition procOutputMode = new PropertyDefinition("outputMode",
+					PropertyType.String, "Replace Geometry", "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_OUTPUT_MODE}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_OUTPUT_MODE}", true, false);
+			procOutputMode.addAllowedValue("Replace Geometry");
+			procOutputMode.addAllowedValue("Add Field");
+			propertyDefinitions.put(procOutputMode.getPropertyName(), procOutputMode);
+
+			PropertyDefinition procHullField = new PropertyDefinition("hullField",
+					PropertyType.String, "VesselShape", "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_HULL_FIELD}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_HULL_FIELD}", "outputMode=Add Field", false, false);
+			propertyDefinitions.put(procHullField.getPropertyName(), procHullField);
+
+			PropertyDefinition procShapeMeasures = new PropertyDefinition("shapeMeasures",
+					PropertyType.Boolean, false, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_SHAPE_MEASURES}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_SHAPE_MEASURES}", false, false);
+			propertyDefinitions.put(procShapeMeasures.getPropertyName(), procShapeMeasures);
+
+			PropertyDefinition procTrailLength = new PropertyDefinition("trailLength",
+					PropertyType.Integer, 0, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_TRAIL_LENGTH}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_TRAIL_LENGTH}", false, false);
+			propertyDefinitions.put(procTrailLength.getPropertyName(), procTrailLength);
+
+			PropertyDefinition procTrailDuration = new PropertyDefinition("trailDuration",
+					PropertyType.Integer, 30, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_TRAIL_DURATION}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_TRAIL_DURATION}", false, false);
+			propertyDefinitions.put(procTrailDuration.getPropertyName(), procTrailDuration);
+
+			PropertyDefinition procTrailCapacity = new PropertyDefinition("trailCapacity",
+					PropertyType.Integer, 100000, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_TRAIL_CAPACITY}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_TRAIL_CAPACITY}", false, false);
+			propertyDefinitions.put(procTrailCapacity.getPropertyName(), procTrailCapacity);
+
+			PropertyDefinition procTrailField = new PropertyDefinition("trailField",
+					PropertyType.String, "VesselTrail", "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_TRAIL_FIELD}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_TRAIL_FIELD}", false, false);
+			propertyDefinitions.put(procTrailField.getPropertyName(), procTrailField);
+
+			PropertyDefinition procShapeOutput = new PropertyDefinition("shapeOutput",
+					PropertyType.String, "Hull", "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_SHAPE_OUTPUT}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_SHAPE_OUTPUT}", true, false);
+			procShapeOutput.addAllowedValue("Hull");
+			procShapeOutput.addAllowedValue("Safety Domain");
+			procShapeOutput.addAllowedValue("Predicted Footprint");
+			propertyDefinitions.put(procShapeOutput.getPropertyName(), procShapeOutput);
+
+			PropertyDefinition procDomainSegments = new PropertyDefinition("domainSegments",
+					PropertyType.Integer, 64, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_DOMAIN_SEGMENTS}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_DOMAIN_SEGMENTS}", "shapeOutput=Safety Domain", false, false);
+			propertyDefinitions.put(procDomainSegments.getPropertyName(), procDomainSegments);
+
+			PropertyDefinition procDomainMajorFactor = new PropertyDefinition("domainMajorFactor",
+					PropertyType.Double, 4.0, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_DOMAIN_MAJOR_FACTOR}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_DOMAIN_MAJOR_FACTOR}", "shapeOutput=Safety Domain", false, false);
+			propertyDefinitions.put(procDomainMajorFactor.getPropertyName(), procDomainMajorFactor);
+
+			PropertyDefinition procDomainMinorFactor = new PropertyDefinition("domainMinorFactor",
+					PropertyType.Double, 1.6, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_DOMAIN_MINOR_FACTOR}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_DOMAIN_MINOR_FACTOR}", "shapeOutput=Safety Domain", false, false);
+			propertyDefinitions.put(procDomainMinorFactor.getPropertyName(), procDomainMinorFactor);
+
+			PropertyDefinition procDomainSpeedFactor = new PropertyDefinition("domainSpeedFactor",
+					PropertyType.Double, 0.1, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_DOMAIN_SPEED_FACTOR}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_DOMAIN_SPEED_FACTOR}", "shapeOutput=Safety Domain", false, false);
+			propertyDefinitions.put(procDomainSpeedFactor.getPropertyName(), procDomainSpeedFactor);
+
+			PropertyDefinition procFootprintHorizon = new PropertyDefinition("footprintHorizon",
+					PropertyType.Integer, 600, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_FOOTPRINT_HORIZON}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_FOOTPRINT_HORIZON}", "shapeOutput=Predicted Footprint", false, false);
+			propertyDefinitions.put(procFootprintHorizon.getPropertyName(), procFootprintHorizon);
+
+			PropertyDefinition procFootprintStep = new PropertyDefinition("footprintStep",
+					PropertyType.Integer, 60, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_FOOTPRINT_STEP}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_FOOTPRINT_STEP}", "shapeOutput=Predicted Footprint", false, false);
+			propertyDefinitions.put(procFootprintStep.getPropertyName(), procFootprintStep);
+
+			PropertyDefinition procLevelOfDetail = new PropertyDefinition("levelOfDetail",
+					PropertyType.String, "Full", "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_LEVEL_OF_DETAIL}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_LEVEL_OF_DETAIL}", true, false);
+			procLevelOfDetail.addAllowedValue("Full");
+			procLevelOfDetail.addAllowedValue("Simplified");
+			procLevelOfDetail.addAllowedValue("Coarse");
+			procLevelOfDetail.addAllowedValue("Arrow");
+			procLevelOfDetail.addAllowedValue("By Length");
+			propertyDefinitions.put(procLevelOfDetail.getPropertyName(), procLevelOfDetail);
+
+			PropertyDefinition procDetailLengths = new PropertyDefinition("detailLengths",
+					PropertyType.String, "25,75,200", "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_DETAIL_LENGTHS}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_DETAIL_LENGTHS}", "levelOfDetail=By Length", false, false);
+			propertyDefinitions.put(procDetailLengths.getPropertyName(), procDetailLengths);
+
+			PropertyDefinition procAreaOfInterest = new PropertyDefinition("areaOfInterest",
+					PropertyType.String, "", "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_AREA_OF_INTEREST}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_AREA_OF_INTEREST}", false, false);
+			propertyDefinitions.put(procAreaOfInterest.getPropertyName(), procAreaOfInterest);
+
+			PropertyDefinition procLaneCount = new PropertyDefinition("laneCount",
+					PropertyType.Integer, 0, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_LANE_COUNT}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_LANE_COUNT}", false, false);
+			propertyDefinitions.put(procLaneCount.getPropertyName(), procLaneCount);
+
+			PropertyDefinition procLaneQueueDepth = new PropertyDefinition("laneQueueDepth",
+					PropertyType.Integer, 1024, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_LANE_QUEUE_DEPTH}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_LANE_QUEUE_DEPTH}", false, false);
+			propertyDefinitions.put(procLaneQueueDepth.getPropertyName(), procLaneQueueDepth);
+
+			PropertyDefinition procConflationInterval = new PropertyDefinition("conflationInterval",
+					PropertyType.Integer, 0, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_CONFLATION_INTERVAL}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_CONFLATION_INTERVAL}", false, false);
+			propertyDefinitions.put(procConflationInterval.getPropertyName(), procConflationInterval);
+
+			PropertyDefinition procStaticDataTtl = new PropertyDefinition("staticDataTtl",
+					PropertyType.Integer, 30, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_STATIC_DATA_TTL}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_STATIC_DATA_TTL}", false, false);
+			propertyDefinitions.put(procStaticDataTtl.getPropertyName(), procStaticDataTtl);
+
+			PropertyDefinition procStaticDataCapacity = new PropertyDefinition("staticDataCapacity",
+					PropertyType.Integer, 262144, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_STATIC_DATA_CAPACITY}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_STATIC_DATA_CAPACITY}", false, false);
+			propertyDefinitions.put(procStaticDataCapacity.getPropertyName(), procStaticDataCapacity);
+
+			PropertyDefinition procChangeSuppression = new PropertyDefinition("changeSuppression",
+					PropertyType.String, "Off", "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_CHANGE_SUPPRESSION}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_CHANGE_SUPPRESSION}", false, false);
+			procChangeSuppression.addAllowedValue("Off");
+			procChangeSuppression.addAllowedValue("Reuse");
+			procChangeSuppression.addAllowedValue("Suppress");
+			propertyDefinitions.put(procChangeSuppression.getPropertyName(), procChangeSuppression);
+
+			PropertyDefinition procDistanceTolerance = new PropertyDefinition("distanceTolerance",
+					PropertyType.Double, 5.0, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_DISTANCE_TOLERANCE}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_DISTANCE_TOLERANCE}", "changeSuppression!=Off", false, false);
+			propertyDefinitions.put(procDistanceTolerance.getPropertyName(), procDistanceTolerance);
+
+			PropertyDefinition procAngleTolerance = new PropertyDefinition("angleTolerance",
+					PropertyType.Double, 2.0, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_ANGLE_TOLERANCE}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_ANGLE_TOLERANCE}", "changeSuppression!=Off", false, false);
+			propertyDefinitions.put(procAngleTolerance.getPropertyName(), procAngleTolerance);
+
+			PropertyDefinition procChangeCacheCapacity = new PropertyDefinition("changeCacheCapacity",
+					PropertyType.Integer, 100000, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_CHANGE_CACHE_CAPACITY}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_CHANGE_CACHE_CAPACITY}", "changeSuppression!=Off", false, false);
+			propertyDefinitions.put(procChangeCacheCapacity.getPropertyName(), procChangeCacheCapacity);
+
+			PropertyDefinition procDuplicateHandling = new PropertyDefinition("duplicateHandling",
+					PropertyType.String, "Off", "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_DUPLICATE_HANDLING}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_DUPLICATE_HANDLING}", false, false);
+			procDuplicateHandling.addAllowedValue("Off");
+			procDuplicateHandling.addAllowedValue("Drop");
+			procDuplicateHandling.addAllowedValue("Reuse");
+			propertyDefinitions.put(procDuplicateHandling.getPropertyName(), procDuplicateHandling);
+
+			PropertyDefinition procDuplicateWindow = new PropertyDefinition("duplicateWindow",
+					PropertyType.Integer, 60, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_DUPLICATE_WINDOW}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_DUPLICATE_WINDOW}", "duplicateHandling!=Off", false, false);
+			propertyDefinitions.put(procDuplicateWindow.getPropertyName(), procDuplicateWindow);
+
+			PropertyDefinition procDuplicateCapacity = new PropertyDefinition("duplicateCapacity",
+					PropertyType.Integer, 131072, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_DUPLICATE_CAPACITY}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_DUPLICATE_CAPACITY}", "duplicateHandling!=Off", false, false);
+			propertyDefinitions.put(procDuplicateCapacity.getPropertyName(), procDuplicateCapacity);
+
+			PropertyDefinition procStaleReports = new PropertyDefinition("staleReports",
+					PropertyType.String, "Off", "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_STALE_REPORTS}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_STALE_REPORTS}", false, false);
+			procStaleReports.addAllowedValue("Off");
+			procStaleReports.addAllowedValue("Drop");
+			procStaleReports.addAllowedValue("Pass");
+			propertyDefinitions.put(procStaleReports.getPropertyName(), procStaleReports);
+
+			PropertyDefinition procStaleTolerance = new PropertyDefinition("staleTolerance",
+					PropertyType.Integer, 0, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_STALE_TOLERANCE}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_STALE_TOLERANCE}", "staleReports!=Off", false, false);
+			propertyDefinitions.put(procStaleTolerance.getPropertyName(), procStaleTolerance);
+
+			PropertyDefinition procStaleCapacity = new PropertyDefinition("staleCapacity",
+					PropertyType.Integer, 262144, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_STALE_CAPACITY}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_STALE_CAPACITY}", "staleReports!=Off", false, false);
+			propertyDefinitions.put(procStaleCapacity.getPropertyName(), procStaleCapacity);
       
+			PropertyDefinition procHeadingUnavailable = new PropertyDefinition("headingUnavailable",
+					PropertyType.Integer, 511, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_HEADING_UNAVAILABLE}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_HEADING_UNAVAILABLE}", false, false);
+			propertyDefinitions.put(procHeadingUnavailable.getPropertyName(), procHeadingUnavailable);
+
+			PropertyDefinition procCourseFallback = new PropertyDefinition("courseFallback",
+					PropertyType.Boolean, true, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_COURSE_FALLBACK}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_COURSE_FALLBACK}", false, false);
+			propertyDefinitions.put(procCourseFallback.getPropertyName(), procCourseFallback);
+
+			PropertyDefinition procMaxVesselLength = new PropertyDefinition("maxVesselLength",
+					PropertyType.Double, 500.0, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_MAX_VESSEL_LENGTH}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_MAX_VESSEL_LENGTH}", false, false);
+			propertyDefinitions.put(procMaxVesselLength.getPropertyName(), procMaxVesselLength);
+
+			PropertyDefinition procMaxVesselWidth = new PropertyDefinition("maxVesselWidth",
+					PropertyType.Double, 80.0, "${com.esri.geoevent.processor.vesselshape-generator-processor.LBL_MAX_VESSEL_WIDTH}",
+					"${com.esri.geoevent.processor.vesselshape-generator-processor.DESC_MAX_VESSEL_WIDTH}", false, false);
+			propertyDefinitions.put(procMaxVesselWidth.getPropertyName(), procMaxVesselWidth);
+
 			GeoEventDefinition def = new DefaultGeoEventDefinition();
       
 			def.setName("VesselFeed");
@@ -66,6 +265,9 @@ public class VesselShapeGeneratorProcessorDefinition extends
 			topLevelFields.add(new DefaultFieldDefinition("Name", FieldType.String, "VESSEL_NAME"));
 			topLevelFields.add(new DefaultFieldDefinition("ShipType", FieldType.Integer, "VESSEL_TYPE"));
 			topLevelFields.add(new DefaultFieldDefinition("TrueHeading", FieldType.Double, "VESSEL_BEARING"));
+			topLevelFields.add(new DefaultFieldDefinition("COG", FieldType.Double, "VESSEL_COURSE"));
+			topLevelFields.add(new DefaultFieldDefinition("SOG", FieldType.Double, "VESSEL_SPEED"));
+			topLevelFields.add(new DefaultFieldDefinition("ROT", FieldType.Double, "VESSEL_RATE_OF_TURN"));
 			topLevelFields.add(new DefaultFieldDefinition("DimBow", FieldType.Integer, "VESSEL_BOW"));
 			topLevelFields.add(new DefaultFieldDefinition("DimPort", FieldType.Integer, "VESSEL_PORT"));
 			topLevelFields.add(new DefaultFieldDefinition("DimStarboard", FieldType.Integer, "VESSEL_STARBOARD"));
@@ -24,19 +24,22 @@
 package com.esri.geoevent.processor.vesselshapegenerator;
 
 import com.esri.geoevent.processor.vesselshapegenerator.provider.Provider;
+import com.esri.geoevent.processor.vesselshapegenerator.provider.ShapeCatalog;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import com.esri.ges.core.component.ComponentException;
 import com.esri.ges.core.property.PropertyException;
 import com.esri.ges.manager.geoeventdefinition.GeoEventDefinitionManager;
+import com.esri.ges.messaging.Messaging;
 import com.esri.ges.processor.GeoEventProcessor;
 import com.esri.ges.processor.GeoEventProcessorServiceBase;
 import java.util.List;
 
 public class VesselShapeGeneratorProcessorService extends GeoEventProcessorServiceBase {
 	public GeoEventDefinitionManager manager;
-  private List<Provider> shapeProviders;
+  private ShapeCatalog shapeCatalog;
+  private Messaging messaging;
   
 	private static final Log LOG = LogFactory
 			.getLog(VesselShapeGeneratorProcessorService.class);
@@ -46,13 +49,36 @@ public class VesselShapeGeneratorProcessorService extends GeoEventProcessorServi
 	}
 
   public void setShapeProviders(List<Provider> shapeProviders) {
-    this.shapeProviders = shapeProviders;
+    ShapeCatalog previous = shapeCatalog;
+    this.shapeCatalog = new ShapeCatalog(shapeProviders);
+    if (previous != null) {
+      previous.destroy();
+    }
+  }
+
+  /**
+   * Detaches the shape catalog from its providers.
+   */
+  public void destroy() {
+    ShapeCatalog current = shapeCatalog;
+    shapeCatalog = null;
+    if (current != null) {
+      current.destroy();
+    }
+  }
+
+  public void setMessaging(Messaging messaging) {
+    this.messaging = messaging;
+  }
+
+  public void setManager(GeoEventDefinitionManager manager) {
+    this.manager = manager;
   }
 
 	@Override
 	public GeoEventProcessor create() {
 		try {
-			return new VesselShapeGeneratorProcessor(definition, shapeProviders);
+			return new VesselShapeGeneratorProcessor(definition, shapeCatalog, messaging, manager);
 		} catch (ComponentException e) {
 			LOG.error("Rangefan processor");
 			LOG.error(e.getMessage());
@@ -0,0 +1,112 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import com.esri.geoevent.processor.vesselshapegenerator.metrics.RejectReason;
+import com.esri.geoevent.processor.vesselshapegenerator.track.StaticDataStore;
+
+/**
+ * Vessel report plausibility rules.
+ * <p>
+ * Runs on primitive values before any geometry work. Implausible dimensions
+ * (negative, zero sized, or beyond the maximum vessel size, e.g. the AIS
+ * 511 "not available" bow) are cleared so per track static data can replace
+ * them. Headings are normalized to [0, 360) as the rotation always did;
+ * the heading falls back to the course over ground when it is missing or
+ * carries the "not available" value. Instances are immutable.
+ */
+final class VesselValidator {
+
+  /** AIS course over ground "not available" (3600 in 1/10 degree). */
+  private static final double COURSE_UNAVAILABLE = 360.0;
+
+  private final double headingUnavailable;
+  private final double maxLength;
+  private final double maxWidth;
+  private final boolean courseFallback;
+
+  /**
+   * Creates validator.
+   * @param headingUnavailable heading value meaning "not available"
+   * @param maxLength maximum vessel length in meters
+   * @param maxWidth maximum vessel width in meters
+   * @param courseFallback <code>true</code> to use the course when the heading is not available
+   */
+  VesselValidator(double headingUnavailable, double maxLength, double maxWidth, boolean courseFallback) {
+    this.headingUnavailable = headingUnavailable;
+    this.maxLength = maxLength;
+    this.maxWidth = maxWidth;
+    this.courseFallback = courseFallback;
+  }
+
+  /**
+   * Clears implausible dimensions; bow and stern as well as port and
+   * starboard are cleared in pairs.
+   * @param vessel reported values
+   * @return reason of the first cleared pair or <code>null</code> if both are plausible or missing
+   */
+  RejectReason clearInvalidDimensions(StaticDataStore.Values vessel) {
+    RejectReason reason = checkPair(vessel.bow, vessel.stern, maxLength);
+    if (reason != null) {
+      vessel.bow = Double.NaN;
+      vessel.stern = Double.NaN;
+    }
+    RejectReason widthReason = checkPair(vessel.port, vessel.starboard, maxWidth);
+    if (widthReason != null) {
+      vessel.port = Double.NaN;
+      vessel.starboard = Double.NaN;
+    }
+    return reason != null ? reason : widthReason;
+  }
+
+  /**
+   * Resolves heading.
+   * @param heading reported heading; <code>NaN</code> if missing
+   * @param course reported course over ground; <code>NaN</code> if missing
+   * @return heading in degrees in [0, 360) or <code>NaN</code> if neither is available
+   */
+  double resolveHeading(double heading, double course) {
+    if (!Double.isNaN(heading) && !Double.isInfinite(heading) && heading != headingUnavailable) {
+      double normalized = heading % 360.0;
+      return normalized < 0.0 ? normalized + 360.0 : normalized;
+    }
+    if (courseFallback && course >= 0.0 && course < COURSE_UNAVAILABLE) {
+      return course;
+    }
+    return Double.NaN;
+  }
+
+  private static RejectReason checkPair(double a, double b, double max) {
+    if (Double.isNaN(a) || Double.isNaN(b)) {
+      return null;
+    }
+    if (a < 0.0 || b < 0.0 || a + b > max) {
+      return RejectReason.INVALID_DIMENSIONS;
+    }
+    if (a + b == 0.0) {
+      return RejectReason.ZERO_DIMENSIONS;
+    }
+    return null;
+  }
+}
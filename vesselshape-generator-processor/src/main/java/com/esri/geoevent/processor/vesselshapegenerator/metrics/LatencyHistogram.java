@@ -0,0 +1,130 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram.
+ * <p>
+ * Power of two buckets: bucket <code>i</code> counts latencies in
+ * <code>[2^i, 2^(i+1))</code> nanoseconds, bucket 0 also counts zero.
+ * Recording is a few atomic increments; it neither locks nor allocates.
+ * Reads are not atomic across buckets, which is acceptable for monitoring.
+ */
+public final class LatencyHistogram {
+
+  /** Number of buckets. */
+  public static final int BUCKET_COUNT = 64;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong total = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Records single latency.
+   * @param nanos latency in nanoseconds; negative values count as zero
+   */
+  public void record(long nanos) {
+    if (nanos < 0) {
+      nanos = 0;
+    }
+    buckets.incrementAndGet(bucketOf(nanos));
+    count.incrementAndGet();
+    total.addAndGet(nanos);
+    long current = max.get();
+    while (nanos > current && !max.compareAndSet(current, nanos)) {
+      current = max.get();
+    }
+  }
+
+  public long getCount() {
+    return count.get();
+  }
+
+  public long getTotalNanos() {
+    return total.get();
+  }
+
+  public long getMaxNanos() {
+    return max.get();
+  }
+
+  /**
+   * Gets bucket counts.
+   * @return copy of the bucket counts
+   */
+  public long[] getBuckets() {
+    long[] counts = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts[i] = buckets.get(i);
+    }
+    return counts;
+  }
+
+  /**
+   * Estimates percentile.
+   * @param percentile percentile; 0 to 100
+   * @return upper bound of the bucket holding the percentile in nanoseconds;
+   * 0 if nothing recorded
+   */
+  public long getPercentileNanos(double percentile) {
+    long[] counts = getBuckets();
+    long recorded = 0;
+    for (long c : counts) {
+      recorded += c;
+    }
+    if (recorded == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(recorded * Math.max(0.0, Math.min(100.0, percentile)) / 100.0);
+    long cumulative = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      cumulative += counts[i];
+      if (cumulative >= rank && cumulative > 0) {
+        return Math.min(upperBound(i), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      buckets.set(i, 0);
+    }
+    count.set(0);
+    total.set(0);
+    max.set(0);
+  }
+
+  private static int bucketOf(long nanos) {
+    return nanos == 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+  }
+
+  private static long upperBound(int bucket) {
+    return bucket >= 62 ? Long.MAX_VALUE : (1L << (bucket + 1)) - 1;
+  }
+}
@@ -0,0 +1,303 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.metrics;
+
+import com.esri.geoevent.processor.vesselshapegenerator.provider.ShapeCatalog;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Vessel shape generator processor metrics.
+ * <p>
+ * One instance per processor, registered with the platform MBean server
+ * under <code>com.esri.geoevent.processor:type=VesselShapeGenerator,name=&lt;id&gt;</code>.
+ * All recording methods are lock-free and allocation free.
+ */
+public final class ProcessorMetrics implements ProcessorMetricsMXBean {
+
+  private static final Log LOG = LogFactory.getLog(ProcessorMetrics.class);
+  private static final String DOMAIN = "com.esri.geoevent.processor";
+  private static final RejectReason[] REASONS = RejectReason.values();
+  private static final Stage[] STAGES = Stage.values();
+
+  private final ShapeCatalog shapeCatalog;
+  private final AtomicLong eventsIn = new AtomicLong();
+  private final AtomicLong eventsOut = new AtomicLong();
+  private final AtomicLong eventsConflated = new AtomicLong();
+  private final AtomicLong duplicates = new AtomicLong();
+  private final AtomicLongArray rejections = new AtomicLongArray(REASONS.length);
+  private final AtomicLong defaultShapeFallbacks = new AtomicLong();
+  private final AtomicLong staticDataCompletions = new AtomicLong();
+  private final AtomicLong hullCacheHits = new AtomicLong();
+  private final AtomicLong hullCacheMisses = new AtomicLong();
+  private final LatencyHistogram[] latencies = new LatencyHistogram[STAGES.length];
+  private volatile long initialRegistryVersion;
+  private ObjectName objectName;
+
+  public ProcessorMetrics(ShapeCatalog shapeCatalog) {
+    this.shapeCatalog = shapeCatalog;
+    this.initialRegistryVersion = getShapeRegistryVersion();
+    for (int i = 0; i < latencies.length; i++) {
+      latencies[i] = new LatencyHistogram();
+    }
+  }
+
+  /**
+   * Registers with the platform MBean server; replaces any previous
+   * registration of this instance.
+   * @param id processor id
+   */
+  public synchronized void register(String id) {
+    unregister();
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName(DOMAIN + ":type=VesselShapeGenerator,name=" + ObjectName.quote(id));
+      if (server.isRegistered(name)) {
+        server.unregisterMBean(name);
+      }
+      server.registerMBean(this, name);
+      objectName = name;
+    } catch (JMException ex) {
+      LOG.warn(String.format("Unable to register processor metrics: %s", id), ex);
+    }
+  }
+
+  public synchronized void unregister() {
+    if (objectName != null) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+      } catch (JMException ex) {
+        LOG.debug(String.format("Unable to unregister processor metrics: %s", objectName), ex);
+      }
+      objectName = null;
+    }
+  }
+
+  public void eventIn() {
+    eventsIn.incrementAndGet();
+  }
+
+  public void eventOut() {
+    eventsOut.incrementAndGet();
+  }
+
+  public void eventConflated() {
+    eventsConflated.incrementAndGet();
+  }
+
+  public void duplicate() {
+    duplicates.incrementAndGet();
+  }
+
+  public void rejected(RejectReason reason) {
+    rejections.incrementAndGet(reason.ordinal());
+  }
+
+  public void defaultShapeFallback() {
+    defaultShapeFallbacks.incrementAndGet();
+  }
+
+  public void staticDataCompleted() {
+    staticDataCompletions.incrementAndGet();
+  }
+
+  public void hullCacheHit() {
+    hullCacheHits.incrementAndGet();
+  }
+
+  public void hullCacheMiss() {
+    hullCacheMisses.incrementAndGet();
+  }
+
+  /**
+   * Records stage latency.
+   * @param stage stage
+   * @param nanos latency in nanoseconds
+   */
+  public void record(Stage stage, long nanos) {
+    latencies[stage.ordinal()].record(nanos);
+  }
+
+  public LatencyHistogram getLatency(Stage stage) {
+    return latencies[stage.ordinal()];
+  }
+
+  public long getRejections(RejectReason reason) {
+    return rejections.get(reason.ordinal());
+  }
+
+  @Override
+  public long getEventsIn() {
+    return eventsIn.get();
+  }
+
+  @Override
+  public long getEventsOut() {
+    return eventsOut.get();
+  }
+
+  @Override
+  public long getEventsConflated() {
+    return eventsConflated.get();
+  }
+
+  @Override
+  public long getDuplicates() {
+    return duplicates.get();
+  }
+
+  @Override
+  public long getStaleReports() {
+    return rejections.get(RejectReason.STALE_REPORT.ordinal());
+  }
+
+  @Override
+  public long getEventsRejected() {
+    long total = 0;
+    for (int i = 0; i < REASONS.length; i++) {
+      total += rejections.get(i);
+    }
+    return total;
+  }
+
+  @Override
+  public Map<String, Long> getRejections() {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    for (RejectReason reason : REASONS) {
+      counts.put(reason.name(), rejections.get(reason.ordinal()));
+    }
+    return counts;
+  }
+
+  @Override
+  public long getDefaultShapeFallbacks() {
+    return defaultShapeFallbacks.get();
+  }
+
+  @Override
+  public long getStaticDataCompletions() {
+    return staticDataCompletions.get();
+  }
+
+  @Override
+  public long getHullCacheHits() {
+    return hullCacheHits.get();
+  }
+
+  @Override
+  public long getHullCacheMisses() {
+    return hullCacheMisses.get();
+  }
+
+  @Override
+  public double getHullCacheHitRatio() {
+    long hits = hullCacheHits.get();
+    long lookups = hits + hullCacheMisses.get();
+    return lookups > 0 ? (double) hits / lookups : 0.0;
+  }
+
+  @Override
+  public long getProviderReloads() {
+    return Math.max(0, getShapeRegistryVersion() - initialRegistryVersion);
+  }
+
+  @Override
+  public long getShapeRegistryVersion() {
+    return shapeCatalog != null ? shapeCatalog.getRegistry().getVersion() : 0;
+  }
+
+  @Override
+  public Map<String, Long> getLatencyMeanNanos() {
+    Map<String, Long> values = new LinkedHashMap<>();
+    for (Stage stage : STAGES) {
+      LatencyHistogram histogram = latencies[stage.ordinal()];
+      long count = histogram.getCount();
+      values.put(stage.name(), count > 0 ? histogram.getTotalNanos() / count : 0);
+    }
+    return values;
+  }
+
+  @Override
+  public Map<String, Long> getLatencyMedianNanos() {
+    return getPercentiles(50.0);
+  }
+
+  @Override
+  public Map<String, Long> getLatency99thPercentileNanos() {
+    return getPercentiles(99.0);
+  }
+
+  @Override
+  public Map<String, Long> getLatencyMaxNanos() {
+    Map<String, Long> values = new LinkedHashMap<>();
+    for (Stage stage : STAGES) {
+      values.put(stage.name(), latencies[stage.ordinal()].getMaxNanos());
+    }
+    return values;
+  }
+
+  @Override
+  public Map<String, long[]> getLatencyHistograms() {
+    Map<String, long[]> values = new LinkedHashMap<>();
+    for (Stage stage : STAGES) {
+      values.put(stage.name(), latencies[stage.ordinal()].getBuckets());
+    }
+    return values;
+  }
+
+  @Override
+  public void reset() {
+    eventsIn.set(0);
+    eventsOut.set(0);
+    eventsConflated.set(0);
+    duplicates.set(0);
+    for (int i = 0; i < REASONS.length; i++) {
+      rejections.set(i, 0);
+    }
+    defaultShapeFallbacks.set(0);
+    staticDataCompletions.set(0);
+    hullCacheHits.set(0);
+    hullCacheMisses.set(0);
+    for (LatencyHistogram histogram : latencies) {
+      histogram.reset();
+    }
+    initialRegistryVersion = getShapeRegistryVersion();
+  }
+
+  private Map<String, Long> getPercentiles(double percentile) {
+    Map<String, Long> values = new LinkedHashMap<>();
+    for (Stage stage : STAGES) {
+      values.put(stage.name(), latencies[stage.ordinal()].getPercentileNanos(percentile));
+    }
+    return values;
+  }
+}
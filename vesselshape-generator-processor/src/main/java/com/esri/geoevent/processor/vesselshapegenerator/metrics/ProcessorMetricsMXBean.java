@@ -0,0 +1,105 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.metrics;
+
+import java.util.Map;
+
+/**
+ * Vessel shape generator processor metrics management interface.
+ * <p>
+ * Counters accumulate since the processor was created or last reset.
+ * Latency maps are keyed by {@link Stage} name, rejection counts by
+ * {@link RejectReason} name.
+ */
+public interface ProcessorMetricsMXBean {
+
+  long getEventsIn();
+
+  long getEventsOut();
+
+  /**
+   * Gets number of events replaced by a later event of the same track
+   * before the conflation timer flushed them.
+   * @return number of events
+   */
+  long getEventsConflated();
+
+  /**
+   * Gets number of duplicate reports, dropped or output with the hull of
+   * the first copy.
+   * @return number of reports
+   */
+  long getDuplicates();
+
+  /**
+   * Gets number of reports older than the last report emitted for their
+   * track, dropped or passed through without a hull; the
+   * <code>STALE_REPORT</code> rejections.
+   * @return number of reports
+   */
+  long getStaleReports();
+
+  long getEventsRejected();
+
+  Map<String, Long> getRejections();
+
+  long getDefaultShapeFallbacks();
+
+  /**
+   * Gets number of events completed from the per track static data.
+   * @return number of events
+   */
+  long getStaticDataCompletions();
+
+  long getHullCacheHits();
+
+  long getHullCacheMisses();
+
+  /**
+   * Gets share of hull cache lookups reusing or suppressing a cached hull.
+   * @return hit ratio; 0 to 1
+   */
+  double getHullCacheHitRatio();
+
+  long getProviderReloads();
+
+  long getShapeRegistryVersion();
+
+  Map<String, Long> getLatencyMeanNanos();
+
+  Map<String, Long> getLatencyMedianNanos();
+
+  Map<String, Long> getLatency99thPercentileNanos();
+
+  Map<String, Long> getLatencyMaxNanos();
+
+  /**
+   * Gets raw histograms; bucket <code>i</code> counts latencies in
+   * <code>[2^i, 2^(i+1))</code> nanoseconds.
+   * @return bucket counts by stage
+   */
+  Map<String, long[]> getLatencyHistograms();
+
+  void reset();
+}
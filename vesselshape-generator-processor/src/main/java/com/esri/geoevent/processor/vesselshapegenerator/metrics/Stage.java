@@ -0,0 +1,40 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.metrics;
+
+/**
+ * Timed stage of the per event processing.
+ */
+public enum Stage {
+  /** Field and geometry extraction, shape lookup. */
+  EXTRACTION,
+  /** Projection of the vessel position into Web Mercator. */
+  INPUT_PROJECTION,
+  /** Scale ratio at the vessel position. */
+  RATIO,
+  /** Hull vertex generation. */
+  HULL_BUILD,
+  /** Projection of the hull into the output spatial reference. */
+  OUTPUT_PROJECTION
+}
@@ -0,0 +1,148 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.model;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary precompiled shape catalog.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ *   int    magic 'VSGC'
+ *   int    format version
+ *   int    number of shapes
+ *   index  per shape: short key length, UTF-8 key, int data offset, int vertex count
+ *   data   per shape, 8-byte aligned: vertex count x (double x, double y)
+ * </pre>
+ * The data holds complete compiled rings, so loading needs no parsing or
+ * compilation: reading only walks the index, and each template reads its
+ * ring from a view of the buffer on demand. For a mapped catalog file the
+ * rings stay off-heap and are paged in on first use; the file must then be
+ * replaced by moving a new file into place, never rewritten in place.
+ */
+public final class BinaryCatalog {
+
+  /** Binary catalog file extension. */
+  public static final String EXTENSION = ".vsgc";
+
+  private static final int MAGIC = 0x56534743;
+  private static final int VERSION = 1;
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private BinaryCatalog() {}
+
+  /**
+   * Reads binary catalog.
+   * @param buffer catalog content; kept by the templates and must not be modified afterwards
+   * @return shapes by type
+   * @throws IOException if the buffer is not a valid catalog
+   */
+  public static Map<String, ShapeTemplate> read(ByteBuffer buffer) throws IOException {
+    ByteBuffer index = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+    index.position(0);
+    if (index.remaining() < 12 || index.getInt() != MAGIC) {
+      throw new IOException("Not a binary shape catalog.");
+    }
+    int version = index.getInt();
+    if (version != VERSION) {
+      throw new IOException(String.format("Unsupported binary shape catalog version: %d", version));
+    }
+
+    int count = index.getInt();
+    Map<String, ShapeTemplate> shapes = new HashMap<>();
+    for (int i = 0; i < count; i++) {
+      byte[] key = new byte[index.getShort() & 0xFFFF];
+      index.get(key);
+      int offset = index.getInt();
+      int vertexCount = index.getInt();
+      if (offset < 0 || vertexCount < 0 || (long) offset + vertexCount * 16L > buffer.limit()) {
+        throw new IOException(String.format("Shape data out of bounds at index entry %d.", i));
+      }
+
+      ByteBuffer data = buffer.duplicate();
+      data.limit(offset + vertexCount * 16);
+      data.position(offset);
+      DoubleBuffer ring = data.slice().order(ByteOrder.BIG_ENDIAN).asDoubleBuffer();
+      String type = new String(key, UTF8);
+      shapes.put(type, ShapeTemplate.wrap(type, ring));
+    }
+    return shapes;
+  }
+
+  /**
+   * Writes binary catalog.
+   * @param shapes shapes by type
+   * @param outputStream output stream
+   * @throws IOException if writing fails
+   */
+  public static void write(Map<String, ShapeTemplate> shapes, OutputStream outputStream) throws IOException {
+    List<byte[]> keys = new ArrayList<>();
+    List<ShapeTemplate> templates = new ArrayList<>();
+    int indexSize = 12;
+    for (Map.Entry<String, ShapeTemplate> e : shapes.entrySet()) {
+      byte[] key = e.getKey().getBytes(UTF8);
+      keys.add(key);
+      templates.add(e.getValue());
+      indexSize += 2 + key.length + 8;
+    }
+
+    DataOutputStream out = new DataOutputStream(outputStream);
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(templates.size());
+    int offset = align(indexSize);
+    for (int i = 0; i < templates.size(); i++) {
+      out.writeShort(keys.get(i).length);
+      out.write(keys.get(i));
+      out.writeInt(offset);
+      out.writeInt(templates.get(i).getVertexCount());
+      offset += templates.get(i).getVertexCount() * 16;
+    }
+    for (int i = indexSize; i < align(indexSize); i++) {
+      out.writeByte(0);
+    }
+    for (ShapeTemplate template : templates) {
+      for (int v = 0; v < template.getVertexCount(); v++) {
+        out.writeDouble(template.getX(v));
+        out.writeDouble(template.getY(v));
+      }
+    }
+    out.flush();
+  }
+
+  private static int align(int offset) {
+    return (offset + 7) & ~7;
+  }
+}
@@ -0,0 +1,56 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.model;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Converts JSON shape catalog into binary catalog.
+ * <p>
+ * Usage: <code>CatalogConverter &lt;input.json&gt; &lt;output.vsgc&gt;</code>
+ */
+public final class CatalogConverter {
+
+  private CatalogConverter() {}
+
+  public static void convert(InputStream jsonStream, OutputStream binaryStream) throws IOException {
+    Map<String, ShapeTemplate> shapes = new Parser().parse(jsonStream);
+    BinaryCatalog.write(shapes, binaryStream);
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: CatalogConverter <input.json> <output" + BinaryCatalog.EXTENSION + ">");
+      System.exit(1);
+    }
+    try (InputStream in = new FileInputStream(args[0]); OutputStream out = new FileOutputStream(args[1]);) {
+      convert(in, out);
+    }
+  }
+}
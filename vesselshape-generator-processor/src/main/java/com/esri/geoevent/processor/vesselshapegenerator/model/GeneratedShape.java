@@ -0,0 +1,90 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.model;
+
+import com.esri.core.geometry.MapGeometry;
+
+/**
+ * Generated shape and its measures.
+ * <p>
+ * The measures are taken while the shape is generated: the envelope from
+ * the output vertices, area, perimeter and centroid from the template
+ * scaled by the vessel dimensions. The geometries are mutable, so a shape
+ * kept for later reports of the same vessel is emitted as a {@link #copy()}.
+ */
+public final class GeneratedShape {
+  private final MapGeometry geometry;
+  private final MapGeometry envelope;
+  private final double area;
+  private final double perimeter;
+  private final MapGeometry centroid;
+
+  /**
+   * Creates shape.
+   * @param geometry shape
+   * @param envelope envelope of the shape; <code>null</code> if not measured
+   * @param area area in square meters; <code>NaN</code> if not measured
+   * @param perimeter perimeter in meters; <code>NaN</code> if not measured
+   * @param centroid centroid of the shape; <code>null</code> if not measured
+   */
+  public GeneratedShape(MapGeometry geometry, MapGeometry envelope, double area, double perimeter, MapGeometry centroid) {
+    this.geometry = geometry;
+    this.envelope = envelope;
+    this.area = area;
+    this.perimeter = perimeter;
+    this.centroid = centroid;
+  }
+
+  /**
+   * Copies the shape; every event gets geometries of its own.
+   * @return copy
+   */
+  public GeneratedShape copy() {
+    return new GeneratedShape(copy(geometry), copy(envelope), area, perimeter, copy(centroid));
+  }
+
+  private static MapGeometry copy(MapGeometry geometry) {
+    return geometry != null ? new MapGeometry(geometry.getGeometry().copy(), geometry.getSpatialReference()) : null;
+  }
+
+  public MapGeometry getGeometry() {
+    return geometry;
+  }
+
+  public MapGeometry getEnvelope() {
+    return envelope;
+  }
+
+  public double getArea() {
+    return area;
+  }
+
+  public double getPerimeter() {
+    return perimeter;
+  }
+
+  public MapGeometry getCentroid() {
+    return centroid;
+  }
+}
@@ -25,26 +25,146 @@ package com.esri.geoevent.processor.vesselshapegenerator.model;
 
 import java.io.InputStream;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Model parser.
+ * <p>
+ * Streams the catalog with a shared, thread-safe {@link JsonFactory} and
+ * writes factors straight into primitive arrays of the compiled templates.
+ * Each shape is validated while it is read: a type is required, every factor
+ * must have <code>x</code> and <code>y</code> within [0, 1], and the
+ * starboard side must run from bow to stern and the port side back from stern
+ * to bow so the ring closes at the bow origin.
  */
 public class Parser {
-  
-  public Map<String,Shape> parse(InputStream jsonStream) throws IOException {
-    ObjectMapper mapper = new ObjectMapper();
-    Map<String, Shape> shapeMap = new HashMap<>();
-    
-    Shape [] shapes = mapper.readValue(jsonStream, Shape[].class);
-    
-    for (Shape shape: shapes) {
-      shapeMap.put(shape.type, shape);
-    }
-    
+
+  private static final JsonFactory factory = new JsonFactory();
+
+  public Map<String, ShapeTemplate> parse(InputStream jsonStream) throws IOException {
+    Map<String, ShapeTemplate> shapeMap = new HashMap<>();
+    Factors starboard = new Factors();
+    Factors port = new Factors();
+
+    try (JsonParser parser = factory.createParser(jsonStream);) {
+      expect(parser, parser.nextToken(), JsonToken.START_ARRAY);
+      JsonToken token;
+      while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+        String type = null;
+        starboard.clear();
+        port.clear();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String name = parser.getCurrentName();
+          parser.nextToken();
+          switch (name) {
+            case "type":
+              type = parser.getValueAsString();
+              break;
+            case "starboardSide":
+              readFactors(parser, starboard);
+              break;
+            case "portSide":
+              readFactors(parser, port);
+              break;
+            default:
+              parser.skipChildren();
+          }
+        }
+
+        validate(parser, type, starboard, port);
+        shapeMap.put(type, ShapeTemplate.create(type, starboard.values, starboard.count, port.values, port.count));
+      }
+      expect(parser, token, JsonToken.END_ARRAY);
+    }
+
     return shapeMap;
   }
+
+  private static void readFactors(JsonParser parser, Factors factors) throws IOException {
+    expect(parser, parser.getCurrentToken(), JsonToken.START_ARRAY);
+    JsonToken token;
+    while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+      double x = Double.NaN;
+      double y = Double.NaN;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        parser.nextToken();
+        if ("x".equals(name)) {
+          x = readFactor(parser);
+        } else if ("y".equals(name)) {
+          y = readFactor(parser);
+        } else {
+          parser.skipChildren();
+        }
+      }
+      if (Double.isNaN(x) || Double.isNaN(y)) {
+        throw new JsonParseException("Factor requires both x and y.", parser.getCurrentLocation());
+      }
+      factors.add(x, y);
+    }
+    expect(parser, token, JsonToken.END_ARRAY);
+  }
+
+  private static double readFactor(JsonParser parser) throws IOException {
+    if (!parser.getCurrentToken().isNumeric()) {
+      throw new JsonParseException("Factor must be a number.", parser.getCurrentLocation());
+    }
+    double value = parser.getDoubleValue();
+    if (!(value >= 0.0 && value <= 1.0)) {
+      throw new JsonParseException(String.format("Factor out of range [0, 1]: %s", value), parser.getCurrentLocation());
+    }
+    return value;
+  }
+
+  private static void validate(JsonParser parser, String type, Factors starboard, Factors port) throws JsonParseException {
+    if (type == null) {
+      throw new JsonParseException("Shape requires a type.", parser.getCurrentLocation());
+    }
+    if (starboard.count == 0 || port.count == 0) {
+      throw new JsonParseException(String.format("Shape %s requires starboard and port sides.", type), parser.getCurrentLocation());
+    }
+    if (starboard.x(starboard.count - 1) < starboard.x(0) || port.x(port.count - 1) > port.x(0)) {
+      throw new JsonParseException(String.format("Shape %s does not close: starboard side must run from bow to stern and port side from stern to bow.", type), parser.getCurrentLocation());
+    }
+  }
+
+  private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws JsonParseException {
+    if (actual != expected) {
+      throw new JsonParseException(String.format("Expected %s but found %s.", expected, actual), parser.getCurrentLocation());
+    }
+  }
+
+  /**
+   * Growable buffer of interleaved x,y factors; reused between shapes.
+   */
+  private static final class Factors {
+    double[] values = new double[64];
+    int count;
+
+    void clear() {
+      count = 0;
+    }
+
+    void add(double x, double y) {
+      if (2 * count + 2 > values.length) {
+        double[] grown = new double[values.length * 2];
+        System.arraycopy(values, 0, grown, 0, 2 * count);
+        values = grown;
+      }
+      values[2 * count] = x;
+      values[2 * count + 1] = y;
+      count++;
+    }
+
+    double x(int index) {
+      return values[2 * index];
+    }
+  }
 }
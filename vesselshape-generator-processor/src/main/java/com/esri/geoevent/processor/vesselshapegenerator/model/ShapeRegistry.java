@@ -0,0 +1,206 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable vessel type to shape lookup.
+ * <p>
+ * Numeric types (AIS ShipType 0-99) are held in a dense array, any other key
+ * in a map. A key of the form <code>"70-79"</code> applies the shape to the
+ * whole range of numeric types. Types without a shape resolve to the
+ * default shape (type <code>"0"</code>).
+ */
+public final class ShapeRegistry {
+
+  /** Number of numeric vessel types held in the dense array. */
+  public static final int CODE_COUNT = 100;
+  /** Default vessel type. */
+  public static final String DEFAULT_TYPE = "0";
+
+  /** Empty registry. */
+  public static final ShapeRegistry EMPTY = build(Collections.<Map<String, ShapeTemplate>>emptyList(), 0);
+
+  private final ShapeTemplate[] codes;
+  private final boolean[] defined;
+  private final Map<String, ShapeTemplate> named;
+  private final ShapeTemplate defaultShape;
+  private final long version;
+
+  private ShapeRegistry(ShapeTemplate[] codes, boolean[] defined, Map<String, ShapeTemplate> named, ShapeTemplate defaultShape, long version) {
+    this.codes = codes;
+    this.defined = defined;
+    this.named = named;
+    this.defaultShape = defaultShape;
+    this.version = version;
+  }
+
+  /**
+   * Builds registry from catalogs.
+   * @param catalogs shapes by type, highest priority first
+   * @param version registry version
+   * @return registry
+   */
+  public static ShapeRegistry build(List<Map<String, ShapeTemplate>> catalogs, long version) {
+    ShapeTemplate[] codes = new ShapeTemplate[CODE_COUNT];
+    Map<String, ShapeTemplate> named = new HashMap<>();
+
+    // lowest priority first so higher priority catalogs overwrite
+    for (int c = catalogs.size() - 1; c >= 0; c--) {
+      Map<String, ShapeTemplate> catalog = catalogs.get(c);
+      // ranges first so exact types of the same catalog win
+      for (Map.Entry<String, ShapeTemplate> e : catalog.entrySet()) {
+        int dash = e.getKey().indexOf('-');
+        if (dash > 0) {
+          int from = parseCode(e.getKey().substring(0, dash).trim());
+          int to = parseCode(e.getKey().substring(dash + 1).trim());
+          if (from >= 0 && to >= from) {
+            for (int code = from; code <= to && code < CODE_COUNT; code++) {
+              codes[code] = e.getValue();
+            }
+            continue;
+          }
+        }
+        int code = parseCode(e.getKey());
+        if (code < 0 || code >= CODE_COUNT) {
+          named.put(e.getKey(), e.getValue());
+        }
+      }
+      for (Map.Entry<String, ShapeTemplate> e : catalog.entrySet()) {
+        int code = parseCode(e.getKey());
+        if (code >= 0 && code < CODE_COUNT) {
+          codes[code] = e.getValue();
+        }
+      }
+    }
+
+    ShapeTemplate defaultShape = codes[0];
+    boolean[] defined = new boolean[CODE_COUNT];
+    for (int code = 0; code < CODE_COUNT; code++) {
+      defined[code] = codes[code] != null;
+      if (codes[code] == null) {
+        codes[code] = defaultShape;
+      }
+    }
+    return new ShapeRegistry(codes, defined, named, defaultShape, version);
+  }
+
+  /**
+   * Gets shape for numeric vessel type.
+   * @param type vessel type
+   * @return shape or default shape; <code>null</code> if no default shape
+   */
+  public ShapeTemplate get(int type) {
+    if (type >= 0 && type < CODE_COUNT) {
+      return codes[type];
+    }
+    ShapeTemplate shape = named.get(Integer.toString(type));
+    return shape != null ? shape : defaultShape;
+  }
+
+  /**
+   * Gets shape for vessel type.
+   * @param type vessel type
+   * @return shape or default shape; <code>null</code> if no default shape
+   */
+  public ShapeTemplate get(String type) {
+    if (type == null) {
+      return defaultShape;
+    }
+    int code = parseCode(type);
+    if (code >= 0 && code < CODE_COUNT) {
+      return codes[code];
+    }
+    ShapeTemplate shape = named.get(type);
+    return shape != null ? shape : defaultShape;
+  }
+
+  /**
+   * Gets shape for vessel type field value.
+   * @param type vessel type; number or string
+   * @return shape or default shape; <code>null</code> if no default shape
+   */
+  public ShapeTemplate get(Object type) {
+    if (type instanceof Integer || type instanceof Short || type instanceof Long) {
+      long code = ((Number) type).longValue();
+      return code >= 0 && code < CODE_COUNT ? codes[(int) code] : get(type.toString());
+    }
+    return get(type != null ? type.toString() : null);
+  }
+
+  /**
+   * Checks if the vessel type has a shape of its own rather than falling
+   * back to the default shape.
+   * @param type vessel type; number or string
+   * @return <code>true</code> if the type has a shape
+   */
+  public boolean isDefined(Object type) {
+    if (type == null) {
+      return false;
+    }
+    int code = type instanceof Integer || type instanceof Short ? ((Number) type).intValue() : parseCode(type.toString());
+    if (code >= 0 && code < CODE_COUNT) {
+      return defined[code];
+    }
+    return named.containsKey(type.toString());
+  }
+
+  /**
+   * Gets registry version; increases with every rebuild so derived caches
+   * can detect they are stale.
+   * @return version
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  public ShapeTemplate getDefault() {
+    return defaultShape;
+  }
+
+  /**
+   * Parses non-negative decimal vessel type.
+   * @param type vessel type
+   * @return numeric type or -1 if not numeric
+   */
+  private static int parseCode(String type) {
+    int length = type.length();
+    if (length == 0 || length > 9) {
+      return -1;
+    }
+    int code = 0;
+    for (int i = 0; i < length; i++) {
+      char c = type.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      code = code * 10 + (c - '0');
+    }
+    return code;
+  }
+}
@@ -0,0 +1,507 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.model;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compiled shape.
+ * <p>
+ * Holds the complete hull ring as packed unit factors (x along the length,
+ * y across the width): the bow origin, the starboard side, the mirrored
+ * port side and the closing origin. Templates of binary catalogs read the
+ * ring from a view of the catalog buffer on demand instead. Instances are
+ * immutable and shared between threads.
+ * <p>
+ * Each template also provides simplified levels of detail: two Douglas-Peucker
+ * simplifications of the ring and a 5 vertex arrow spanning the extent of
+ * the shape. The levels and the convex hull of the ring are computed once,
+ * on first use, and shared. The measures of the unit ring are computed on
+ * first use as well, so measures of a vessel only need scaling; see
+ * {@link #getPerimeter} for the perimeter.
+ */
+public final class ShapeTemplate {
+
+  /** Level of detail: complete ring. */
+  public static final int LEVEL_FULL = 0;
+  /** Level of detail: ring simplified within 1% of the vessel size. */
+  public static final int LEVEL_SIMPLIFIED = 1;
+  /** Level of detail: ring simplified within 4% of the vessel size. */
+  public static final int LEVEL_COARSE = 2;
+  /** Level of detail: 5 vertex arrow. */
+  public static final int LEVEL_ARROW = 3;
+  /** Number of levels of detail. */
+  public static final int LEVEL_COUNT = 4;
+
+  // Douglas-Peucker tolerances in unit factors by level
+  private static final double[] TOLERANCES = {0.0, 0.01, 0.04};
+  // fraction of the length from the bow to the shoulders of the arrow
+  private static final double ARROW_SHOULDER = 0.15;
+  /** Bound of the relative error of {@link #getPerimeter}. */
+  public static final double PERIMETER_RELATIVE_ERROR = 1e-7;
+  // intervals of the perimeter table over the width share
+  private static final int PERIMETER_INTERVALS = 128;
+  // edges nearly along or across the vessel bend sharply in the width share and are summed exactly
+  private static final double SHARP_EDGE_RATIO = 0.1;
+
+  private final String type;
+  // packed ring, or null when read from the catalog buffer
+  private final double[] coords;
+  private final DoubleBuffer ring;
+  private final int vertexCount;
+  // computed on first use; a racing computation yields equal levels and measures
+  private volatile ShapeTemplate[] levels;
+  private volatile ShapeTemplate convexHull;
+  private volatile Measures measures;
+
+  private ShapeTemplate(String type, double[] coords) {
+    this.type = type;
+    this.coords = coords;
+    this.ring = null;
+    this.vertexCount = coords.length / 2;
+  }
+
+  private ShapeTemplate(String type, DoubleBuffer ring) {
+    this.type = type;
+    this.coords = null;
+    this.ring = ring;
+    this.vertexCount = ring.capacity() / 2;
+  }
+
+  /**
+   * Compiles single shape.
+   * @param shape shape
+   * @return compiled template
+   */
+  public static ShapeTemplate compile(Shape shape) {
+    int starboardCount = shape.starboardSide != null ? shape.starboardSide.size() : 0;
+    int portCount = shape.portSide != null ? shape.portSide.size() : 0;
+
+    // origin and closing origin are left as zeros
+    double[] coords = new double[(starboardCount + portCount + 2) * 2];
+    int index = put(coords, 2, shape.starboardSide, 1.0);
+    put(coords, index, shape.portSide, -1.0);
+
+    return new ShapeTemplate(shape.type, coords);
+  }
+
+  /**
+   * Creates template from packed factors.
+   * @param type vessel type
+   * @param starboard starboard side factors; interleaved x,y from bow to stern
+   * @param starboardCount number of starboard factors
+   * @param port port side factors; interleaved x,y from stern to bow
+   * @param portCount number of port factors
+   * @return compiled template
+   */
+  public static ShapeTemplate create(String type, double[] starboard, int starboardCount, double[] port, int portCount) {
+    // origin and closing origin are left as zeros
+    double[] coords = new double[(starboardCount + portCount + 2) * 2];
+    System.arraycopy(starboard, 0, coords, 2, starboardCount * 2);
+    int index = 2 + starboardCount * 2;
+    for (int i = 0; i < portCount; i++) {
+      coords[index++] = port[2 * i];
+      coords[index++] = -port[2 * i + 1];
+    }
+    return new ShapeTemplate(type, coords);
+  }
+
+  /**
+   * Wraps packed ring without copying; vertices are read with absolute gets
+   * on demand, so the buffer must not be modified afterwards.
+   * @param type vessel type
+   * @param ring complete ring; interleaved x,y from index 0 to the capacity
+   * @return template
+   */
+  public static ShapeTemplate wrap(String type, DoubleBuffer ring) {
+    return new ShapeTemplate(type, ring);
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public int getVertexCount() {
+    return vertexCount;
+  }
+
+  public double getX(int index) {
+    return coords != null ? coords[2 * index] : ring.get(2 * index);
+  }
+
+  public double getY(int index) {
+    return coords != null ? coords[2 * index + 1] : ring.get(2 * index + 1);
+  }
+
+  /**
+   * Gets area of the vessel.
+   * @param length vessel length in meters
+   * @param width vessel width in meters
+   * @return area in square meters
+   */
+  public double getArea(double length, double width) {
+    return getMeasures().unitArea * length * width;
+  }
+
+  /**
+   * Gets perimeter of the vessel. Unlike the area it does not scale
+   * linearly: it is <code>(length + width) * p(u)</code> where <code>p</code>
+   * is the perimeter of the unit ring scaled by <code>1 - u</code> along and
+   * <code>u</code> across, for the width share <code>u = width / (length + width)</code>.
+   * The edges of <code>p</code> are smooth in <code>u</code> except those
+   * nearly along or across the vessel, which bend sharply. The smooth part
+   * is tabulated over <code>u</code> with its derivative and interpolated
+   * with a cubic Hermite spline, and the sharp edges are summed exactly,
+   * so most shapes need no square root per edge. The relative error stays
+   * below {@link #PERIMETER_RELATIVE_ERROR}.
+   * @param length vessel length in meters
+   * @param width vessel width in meters
+   * @return perimeter in meters
+   */
+  public double getPerimeter(double length, double width) {
+    double size = length + width;
+    if (!(size > 0.0)) {
+      return size == 0.0 ? 0.0 : Double.NaN;
+    }
+    return size * getMeasures().perimeter(Math.max(0.0, Math.min(1.0, width / size)));
+  }
+
+  /**
+   * Gets centroid of the ring as a single vertex template, so it is placed
+   * like any other vertex.
+   * @return centroid template
+   */
+  public ShapeTemplate getCentroid() {
+    return getMeasures().centroid;
+  }
+
+  private Measures getMeasures() {
+    Measures current = measures;
+    if (current == null) {
+      current = new Measures(this);
+      measures = current;
+    }
+    return current;
+  }
+
+  /**
+   * Gets level of detail.
+   * @param level level of detail; {@link #LEVEL_FULL} to {@link #LEVEL_ARROW}
+   * @return template of the level; this template for the full level
+   */
+  public ShapeTemplate getLevel(int level) {
+    if (level <= LEVEL_FULL) {
+      return this;
+    }
+    ShapeTemplate[] current = levels;
+    if (current == null) {
+      current = buildLevels();
+      levels = current;
+    }
+    return current[Math.min(level, LEVEL_ARROW)];
+  }
+
+  /**
+   * Gets convex hull of the ring; clockwise like the ring, without the
+   * closing vertex and without collinear vertices.
+   * @return convex hull template
+   */
+  public ShapeTemplate getConvexHull() {
+    ShapeTemplate current = convexHull;
+    if (current == null) {
+      current = buildConvexHull();
+      convexHull = current;
+    }
+    return current;
+  }
+
+  /**
+   * Builds convex hull with Andrew's monotone chain.
+   * @return convex hull template
+   */
+  private ShapeTemplate buildConvexHull() {
+    Integer[] order = new Integer[vertexCount];
+    for (int i = 0; i < vertexCount; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer a, Integer b) {
+        int c = Double.compare(getX(a), getX(b));
+        return c != 0 ? c : Double.compare(getY(a), getY(b));
+      }
+    });
+    // lower then upper chain, counter-clockwise
+    int[] hull = new int[2 * vertexCount];
+    int count = 0;
+    for (int i = 0; i < vertexCount; i++) {
+      while (count >= 2 && cross(hull[count - 2], hull[count - 1], order[i]) <= 0.0) {
+        count--;
+      }
+      hull[count++] = order[i];
+    }
+    for (int i = vertexCount - 2, lower = count + 1; i >= 0; i--) {
+      while (count >= lower && cross(hull[count - 2], hull[count - 1], order[i]) <= 0.0) {
+        count--;
+      }
+      hull[count++] = order[i];
+    }
+    // the last vertex closes the chain
+    count = Math.max(count - 1, Math.min(vertexCount, 1));
+    double[] result = new double[count * 2];
+    for (int i = 0, j = 0; i < count; i++) {
+      int index = hull[count - 1 - i];
+      result[j++] = getX(index);
+      result[j++] = getY(index);
+    }
+    return new ShapeTemplate(type, result);
+  }
+
+  private double cross(int o, int a, int b) {
+    return (getX(a) - getX(o)) * (getY(b) - getY(o)) - (getY(a) - getY(o)) * (getX(b) - getX(o));
+  }
+
+  private ShapeTemplate[] buildLevels() {
+    ShapeTemplate[] result = new ShapeTemplate[LEVEL_COUNT];
+    result[LEVEL_FULL] = this;
+    result[LEVEL_ARROW] = createArrow();
+    for (int level = LEVEL_SIMPLIFIED; level < LEVEL_ARROW; level++) {
+      ShapeTemplate simplified = simplify(TOLERANCES[level]);
+      ShapeTemplate previous = result[level - 1];
+      if (simplified.vertexCount >= previous.vertexCount) {
+        simplified = previous;
+      } else if (simplified.vertexCount <= result[LEVEL_ARROW].vertexCount) {
+        simplified = result[LEVEL_ARROW];
+      }
+      result[level] = simplified;
+    }
+    for (ShapeTemplate template : result) {
+      template.levels = result;
+    }
+    return result;
+  }
+
+  /**
+   * Simplifies the ring with Douglas-Peucker; the ring is split at the
+   * vertex farthest from the origin so both halves have distinct anchors.
+   * @param tolerance maximum deviation in unit factors
+   * @return simplified template
+   */
+  private ShapeTemplate simplify(double tolerance) {
+    int last = vertexCount - 1;
+    if (last < 2) {
+      return this;
+    }
+    int far = 0;
+    double farDistance = -1.0;
+    for (int i = 1; i < last; i++) {
+      double dx = getX(i) - getX(0);
+      double dy = getY(i) - getY(0);
+      if (dx * dx + dy * dy > farDistance) {
+        farDistance = dx * dx + dy * dy;
+        far = i;
+      }
+    }
+    boolean[] keep = new boolean[vertexCount];
+    keep[0] = keep[far] = keep[last] = true;
+    int[] stack = new int[2 * vertexCount];
+    int top = 0;
+    stack[top++] = 0;
+    stack[top++] = far;
+    stack[top++] = far;
+    stack[top++] = last;
+    while (top > 0) {
+      int to = stack[--top];
+      int from = stack[--top];
+      int split = -1;
+      double maxDistance = tolerance;
+      for (int i = from + 1; i < to; i++) {
+        double distance = segmentDistance(i, from, to);
+        if (distance > maxDistance) {
+          maxDistance = distance;
+          split = i;
+        }
+      }
+      if (split > 0) {
+        keep[split] = true;
+        stack[top++] = from;
+        stack[top++] = split;
+        stack[top++] = split;
+        stack[top++] = to;
+      }
+    }
+
+    int count = 0;
+    for (boolean k : keep) {
+      count += k ? 1 : 0;
+    }
+    double[] simplified = new double[count * 2];
+    for (int i = 0, j = 0; i < vertexCount; i++) {
+      if (keep[i]) {
+        simplified[j++] = getX(i);
+        simplified[j++] = getY(i);
+      }
+    }
+    return new ShapeTemplate(type, simplified);
+  }
+
+  private double segmentDistance(int index, int from, int to) {
+    double x = getX(index), y = getY(index);
+    double ax = getX(from), ay = getY(from);
+    double dx = getX(to) - ax, dy = getY(to) - ay;
+    double lengthSquared = dx * dx + dy * dy;
+    double t = lengthSquared > 0.0 ? Math.max(0.0, Math.min(1.0, ((x - ax) * dx + (y - ay) * dy) / lengthSquared)) : 0.0;
+    return Math.hypot(x - ax - t * dx, y - ay - t * dy);
+  }
+
+  /**
+   * Creates arrow from the extent of the ring: the bow (the origin side of
+   * the unit factors) on the center line, shoulders and stern corners.
+   * @return arrow template
+   */
+  private ShapeTemplate createArrow() {
+    double xmin = 0.0, xmax = 0.0, ymin = 0.0, ymax = 0.0;
+    for (int i = 0; i < vertexCount; i++) {
+      xmin = Math.min(xmin, getX(i));
+      xmax = Math.max(xmax, getX(i));
+      ymin = Math.min(ymin, getY(i));
+      ymax = Math.max(ymax, getY(i));
+    }
+    double shoulder = xmin + ARROW_SHOULDER * (xmax - xmin);
+    return new ShapeTemplate(type, new double[] {
+      xmin, 0.0,
+      shoulder, ymax,
+      xmax, ymax,
+      xmax, ymin,
+      shoulder, ymin
+    });
+  }
+
+  private static int put(double[] coords, int index, List<Factor> factors, double direction) {
+    if (factors != null) {
+      for (Factor f : factors) {
+        coords[index++] = f.x;
+        coords[index++] = direction * f.y;
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Measures of the unit ring.
+   */
+  private static final class Measures {
+    final double unitArea;
+    final ShapeTemplate centroid;
+    // unit perimeter of the smooth edges and its derivative by width share at the table nodes
+    final double[] perimeters = new double[PERIMETER_INTERVALS + 1];
+    final double[] slopes = new double[PERIMETER_INTERVALS + 1];
+    // sharp edges; interleaved dx,dy
+    final double[] sharpEdges;
+
+    Measures(ShapeTemplate template) {
+      int vertexCount = template.vertexCount;
+      // shoelace area and centroid; the vertex average for degenerate rings
+      double area = 0.0, cx = 0.0, cy = 0.0, sx = 0.0, sy = 0.0;
+      for (int i = 0; i < vertexCount; i++) {
+        int j = i + 1 < vertexCount ? i + 1 : 0;
+        double cross = template.getX(i) * template.getY(j) - template.getX(j) * template.getY(i);
+        area += cross;
+        cx += (template.getX(i) + template.getX(j)) * cross;
+        cy += (template.getY(i) + template.getY(j)) * cross;
+        sx += template.getX(i);
+        sy += template.getY(i);
+      }
+      unitArea = Math.abs(area / 2.0);
+      centroid = vertexCount == 1 ? template
+          : area != 0.0 ? new ShapeTemplate(template.type, new double[] {cx / (3.0 * area), cy / (3.0 * area)})
+          : new ShapeTemplate(template.type, new double[] {vertexCount > 0 ? sx / vertexCount : 0.0, vertexCount > 0 ? sy / vertexCount : 0.0});
+
+      // edges exactly along or across are linear in the width share and stay smooth
+      double[] smoothEdges = new double[2 * vertexCount];
+      double[] edges = new double[2 * vertexCount];
+      int smooth = 0;
+      int sharp = 0;
+      for (int i = 0; i < vertexCount; i++) {
+        int j = i + 1 < vertexCount ? i + 1 : 0;
+        double dx = Math.abs(template.getX(j) - template.getX(i));
+        double dy = Math.abs(template.getY(j) - template.getY(i));
+        if (Math.min(dx, dy) > 0.0 && Math.min(dx, dy) < SHARP_EDGE_RATIO * Math.max(dx, dy)) {
+          edges[2 * sharp] = dx;
+          edges[2 * sharp + 1] = dy;
+          sharp++;
+        } else {
+          smoothEdges[2 * smooth] = dx;
+          smoothEdges[2 * smooth + 1] = dy;
+          smooth++;
+        }
+      }
+      sharpEdges = Arrays.copyOf(edges, 2 * sharp);
+
+      for (int k = 0; k <= PERIMETER_INTERVALS; k++) {
+        double u = (double) k / PERIMETER_INTERVALS;
+        double perimeter = 0.0, slope = 0.0;
+        for (int i = 0; i < 2 * smooth; i += 2) {
+          double dx = smoothEdges[i];
+          double dy = smoothEdges[i + 1];
+          double edge = Math.sqrt((1.0 - u) * (1.0 - u) * dx * dx + u * u * dy * dy);
+          perimeter += edge;
+          if (edge > 0.0) {
+            slope += (u * dy * dy - (1.0 - u) * dx * dx) / edge;
+          } else {
+            // one sided at the ends, where the edge length is linear in u
+            slope += u == 0.0 ? dy : -dx;
+          }
+        }
+        perimeters[k] = perimeter;
+        slopes[k] = slope;
+      }
+    }
+
+    /**
+     * Interpolates unit perimeter.
+     * @param u width share; 0 to 1
+     * @return unit perimeter
+     */
+    double perimeter(double u) {
+      double t = u * PERIMETER_INTERVALS;
+      int k = Math.min((int) t, PERIMETER_INTERVALS - 1);
+      double s = t - k;
+      double s2 = s * s;
+      double s3 = s2 * s;
+      double h = 1.0 / PERIMETER_INTERVALS;
+      double perimeter = (2.0 * s3 - 3.0 * s2 + 1.0) * perimeters[k] + (s3 - 2.0 * s2 + s) * h * slopes[k]
+          + (3.0 * s2 - 2.0 * s3) * perimeters[k + 1] + (s3 - s2) * h * slopes[k + 1];
+      for (int i = 0; i < sharpEdges.length; i += 2) {
+        double dx = (1.0 - u) * sharpEdges[i];
+        double dy = u * sharpEdges[i + 1];
+        perimeter += Math.sqrt(dx * dx + dy * dy);
+      }
+      return perimeter;
+    }
+  }
+}
@@ -23,26 +23,46 @@
 */
 package com.esri.geoevent.processor.vesselshapegenerator.provider;
 
+import com.esri.geoevent.processor.vesselshapegenerator.model.BinaryCatalog;
 import com.esri.geoevent.processor.vesselshapegenerator.model.Parser;
-import com.esri.geoevent.processor.vesselshapegenerator.model.Shape;
+import com.esri.geoevent.processor.vesselshapegenerator.model.ShapeTemplate;
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.FileSystems;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import static java.nio.file.StandardWatchEventKinds.*;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
 import org.apache.commons.lang3.text.StrSubstitutor;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 /**
  * Data in folder provider.
+ * <p>
+ * Reads JSON catalogs (<code>.json</code>) into memory, so the files can be
+ * replaced at any time, and maps binary catalogs (<code>.vsgc</code>), whose
+ * rings are read on demand; a binary catalog must be replaced by moving a
+ * new file into place. Keeps the shapes of each file separately. Watch
+ * events are coalesced until the folder has been quiet for the debounce
+ * delay; only files whose modification time, size and content changed are
+ * parsed again and the merged snapshot is rebuilt from the per file
+ * results and published through a volatile reference.
  */
 public class FolderProvider implements Provider {
 
@@ -52,9 +72,14 @@ public class FolderProvider implements Provider {
   private final File path;
   private int streamOpenDelay = 500;   // default: 500 ms
   private int streamOpenAttempts = 5;  // default: 5 attempts
+  private int debounceDelay = 250;     // default: 250 ms
 
-  private Map<String, Shape> cache;
+  private final List<ProviderListener> listeners = new CopyOnWriteArrayList<>();
+  // per file shapes ordered by file name; accessed by init and observer only
+  private final Map<String, FileEntry> files = new TreeMap<>();
+  private volatile ProviderSnapshot snapshot = ProviderSnapshot.EMPTY;
   private Thread thread;
+  private FolderObserver observer;
 
   public FolderProvider(String path) {
     this.path = new File(StrSubstitutor.replaceSystemProperties(path));
@@ -62,8 +87,18 @@ public class FolderProvider implements Provider {
   }
 
   @Override
-  public Map<String, Shape> readShapes() throws ProviderException {
-    return getCache();
+  public ProviderSnapshot getSnapshot() {
+    return snapshot;
+  }
+
+  @Override
+  public void addListener(ProviderListener listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void removeListener(ProviderListener listener) {
+    listeners.remove(listener);
   }
 
   public void setStreamOpenDelay(int streamOpenDelay) {
@@ -74,10 +109,16 @@ public class FolderProvider implements Provider {
     this.streamOpenAttempts = streamOpenAttempts;
   }
 
+  public void setDebounceDelay(int debounceDelay) {
+    this.debounceDelay = debounceDelay;
+  }
+
   public void init() {
     try {
-      setCache(scanFolder(path));
-      thread = new Thread(new FolderObserver(), "Folder observer");
+      scanFolder();
+      publish(mergeFiles());
+      observer = new FolderObserver();
+      thread = new Thread(observer, "Folder observer");
       thread.start();
     } catch (IOException ex) {
       LOG.error(String.format("Error scanning folder: %s", path), ex);
@@ -85,46 +126,138 @@ public class FolderProvider implements Provider {
   }
 
   public void destroy() {
+    if (observer != null) {
+      // wakes the observer and releases the watch handles
+      observer.close();
+      observer = null;
+    }
     if (thread != null) {
       thread.interrupt();
+      try {
+        thread.join(debounceDelay + streamOpenDelay);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      thread = null;
     }
   }
 
-  private synchronized void setCache(Map<String, Shape> cache) {
-    this.cache = cache;
+  private void fireShapesChanged() {
+    for (ProviderListener listener : listeners) {
+      listener.shapesChanged(this);
+    }
   }
 
-  private synchronized Map<String, Shape> getCache() {
-    return cache;
+  // single writer: init, then the observer thread
+  private void publish(Map<String, ShapeTemplate> shapes) {
+    snapshot = snapshot.next(shapes);
   }
 
-  private Map<String, Shape> scanFolder(File root) throws IOException {
-    Map<String, Shape> shapes = new HashMap<>();
-    for (File file : root.listFiles()) {
-      if (file.getName().toLowerCase().endsWith(".json")) {
-        Map<String, Shape> shapesFromFile = readShapes(file);
-        if (shapesFromFile!=null) {
-          shapes.putAll(shapesFromFile);
+  /**
+   * Refreshes all files in the folder.
+   * @return <code>true</code> if any file changed
+   */
+  private boolean scanFolder() throws IOException {
+    File[] list = path.listFiles();
+    if (list == null) {
+      throw new IOException(String.format("Unable to list folder: %s", path));
+    }
+    Set<String> names = new HashSet<>();
+    for (File file : list) {
+      if (isShapeFile(file.getName())) {
+        names.add(file.getName());
+      }
+    }
+    boolean changed = files.keySet().retainAll(names);
+    for (String name : names) {
+      changed |= refreshFile(name);
+    }
+    return changed;
+  }
+
+  /**
+   * Refreshes single file.
+   * @param name file name
+   * @return <code>true</code> if shapes of the file changed
+   */
+  private boolean refreshFile(String name) {
+    File file = new File(path, name);
+    FileEntry entry = files.get(name);
+    if (!file.isFile()) {
+      return files.remove(name) != null;
+    }
+
+    long lastModified = file.lastModified();
+    long length = file.length();
+    if (entry != null && entry.lastModified == lastModified && entry.length == length) {
+      return false;
+    }
+
+    try {
+      if (isBinaryFile(name)) {
+        // mapping only reads the index, so a changed file is mapped again without comparing content
+        Map<String, ShapeTemplate> shapes = mapContent(file);
+        if (shapes == null) {
+          return false;
         }
+        files.put(name, new FileEntry(lastModified, length, 0L, shapes));
+        return true;
       }
+      byte[] content = readContent(file);
+      if (content == null) {
+        return false;
+      }
+      CRC32 crc = new CRC32();
+      crc.update(content);
+      long checksum = crc.getValue();
+      if (entry != null && entry.checksum == checksum) {
+        files.put(name, new FileEntry(lastModified, length, checksum, entry.shapes));
+        return false;
+      }
+      Map<String, ShapeTemplate> shapes = parser.parse(new ByteArrayInputStream(content));
+      files.put(name, new FileEntry(lastModified, length, checksum, shapes));
+      return true;
+    } catch (IOException ex) {
+      // keep previous shapes of the file until it is valid again
+      LOG.error(String.format("Error reading file: %s", file), ex);
+      return false;
+    }
+  }
+
+  private Map<String, ShapeTemplate> mergeFiles() {
+    Map<String, ShapeTemplate> shapes = new HashMap<>();
+    for (FileEntry entry : files.values()) {
+      shapes.putAll(entry.shapes);
     }
     return shapes;
   }
 
-  private Map<String, Shape> readShapes(File file) throws IOException {
-    try (InputStream inputStream = openStream(file);) {
-      if (inputStream != null) {
-        return parser.parse(inputStream);
-      } else {
+  private byte[] readContent(File file) throws IOException {
+    try (RandomAccessFile content = openFile(file);) {
+      if (content == null) {
         return null;
       }
+      byte[] bytes = new byte[(int) content.length()];
+      content.readFully(bytes);
+      return bytes;
     }
   }
-  
-  private InputStream openStream(File file) throws IOException {
+
+  private Map<String, ShapeTemplate> mapContent(File file) throws IOException {
+    try (RandomAccessFile content = openFile(file);) {
+      if (content == null) {
+        return null;
+      }
+      // the mapping stays valid after the file is closed
+      FileChannel channel = content.getChannel();
+      return BinaryCatalog.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  private RandomAccessFile openFile(File file) {
     for (int attempt = 0; attempt < streamOpenAttempts; attempt++) {
       try {
-        return new FileInputStream(file);
+        return new RandomAccessFile(file, "r");
       } catch (IOException ex) {
         // ignore and try again
       }
@@ -133,16 +266,42 @@ public class FolderProvider implements Provider {
         Thread.sleep(streamOpenDelay);
       } catch (InterruptedException ex) {
         // thread (or process) is closed; just exit
+        Thread.currentThread().interrupt();
         return null;
       }
     }
     return null;
   }
 
+  private static boolean isShapeFile(String name) {
+    return name.toLowerCase().endsWith(".json") || isBinaryFile(name);
+  }
+
+  private static boolean isBinaryFile(String name) {
+    return name.toLowerCase().endsWith(BinaryCatalog.EXTENSION);
+  }
+
+  /**
+   * Shapes read from a single file.
+   */
+  private static final class FileEntry {
+    final long lastModified;
+    final long length;
+    final long checksum;
+    final Map<String, ShapeTemplate> shapes;
+
+    FileEntry(long lastModified, long length, long checksum, Map<String, ShapeTemplate> shapes) {
+      this.lastModified = lastModified;
+      this.length = length;
+      this.checksum = checksum;
+      this.shapes = shapes;
+    }
+  }
+
   private class FolderObserver implements Runnable {
 
     private final WatchService watcher;
-    private WatchKey regKey;
+    private final WatchKey regKey;
 
     public FolderObserver() throws IOException {
       watcher = FileSystems.getDefault().newWatchService();
@@ -156,27 +315,59 @@ public class FolderProvider implements Provider {
         LOG.info(String.format("Watching %s folder vessel definitions has started.", path));
         while (!Thread.currentThread().isInterrupted()) {
           key = watcher.take();
-          for (WatchEvent<?> event : key.pollEvents()) {
-            WatchEvent.Kind<?> kind = event.kind();
-            if (kind == OVERFLOW) {
-              continue;
+
+          // coalesce events until the folder is quiet
+          Set<String> changed = new HashSet<>();
+          boolean overflow = false;
+          while (key != null) {
+            for (WatchEvent<?> event : key.pollEvents()) {
+              if (event.kind() == OVERFLOW) {
+                overflow = true;
+              } else if (event.context() instanceof Path) {
+                String name = ((Path) event.context()).getFileName().toString();
+                if (isShapeFile(name)) {
+                  changed.add(name);
+                }
+              }
             }
-            try {
-              setCache(scanFolder(path));
-            } catch (IOException ex) {
-              LOG.error(String.format("Error scanning folder: %s", path), ex);
+            boolean valid = key.reset();
+            if (!valid) {
+              return;
             }
+            key = watcher.poll(debounceDelay, TimeUnit.MILLISECONDS);
           }
-          boolean valid = key.reset();
-          if (!valid) {
-            return;
+
+          boolean modified = false;
+          try {
+            if (overflow) {
+              modified = scanFolder();
+            } else {
+              for (String name : changed) {
+                modified |= refreshFile(name);
+              }
+            }
+          } catch (IOException ex) {
+            LOG.error(String.format("Error scanning folder: %s", path), ex);
+          }
+          if (modified) {
+            publish(mergeFiles());
+            fireShapesChanged();
           }
         }
-      } catch (InterruptedException x) {
+      } catch (InterruptedException | ClosedWatchServiceException x) {
+        // destroyed; just exit
       } finally {
         LOG.info(String.format("Watching %s folder for changes has ended.", path));
-        regKey.reset();
-        regKey = null;
+        close();
+      }
+    }
+
+    void close() {
+      regKey.cancel();
+      try {
+        watcher.close();
+      } catch (IOException ex) {
+        LOG.warn(String.format("Error closing watcher of folder: %s", path), ex);
       }
     }
 
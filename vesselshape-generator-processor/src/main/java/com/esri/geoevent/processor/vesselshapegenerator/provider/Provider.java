@@ -23,12 +23,15 @@
 */
 package com.esri.geoevent.processor.vesselshapegenerator.provider;
 
-import com.esri.geoevent.processor.vesselshapegenerator.model.Shape;
-import java.util.Map;
-
 /**
  * Data provider.
  */
 public interface Provider {
-  Map<String, Shape> readShapes() throws ProviderException;
+  /**
+   * Gets current shapes without blocking.
+   * @return snapshot; never <code>null</code>
+   */
+  ProviderSnapshot getSnapshot();
+  void addListener(ProviderListener listener);
+  void removeListener(ProviderListener listener);
 }
@@ -24,35 +24,12 @@
 package com.esri.geoevent.processor.vesselshapegenerator.provider;
 
 /**
- * Provider exception.
+ * Provider listener.
  */
-public class ProviderException extends Exception {
-
-  /**
-   * Creates a new instance of <code>ProviderException</code> without detail
-   * message.
-   */
-  public ProviderException() {
-  }
-
-  /**
-   * Constructs an instance of <code>ProviderException</code> with the specified
-   * detail message.
-   *
-   * @param msg the detail message.
-   */
-  public ProviderException(String msg) {
-    super(msg);
-  }
-
+public interface ProviderListener {
   /**
-   * Constructs an instance of <code>ProviderException</code> with the specified
-   * detail message.
-   *
-   * @param msg the detail message.
-   * @param cause the cause
+   * Called after the shapes of the provider have changed.
+   * @param provider provider
    */
-  public ProviderException(String msg, Throwable cause) {
-    super(msg, cause);
-  }
+  void shapesChanged(Provider provider);
 }
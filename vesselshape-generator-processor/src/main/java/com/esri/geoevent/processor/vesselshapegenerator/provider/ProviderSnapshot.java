@@ -0,0 +1,69 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.provider;
+
+import com.esri.geoevent.processor.vesselshapegenerator.model.ShapeTemplate;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Immutable, versioned shapes of a provider.
+ * <p>
+ * A provider publishes a new snapshot with a higher version each time its
+ * shapes change; a provider without data publishes an empty snapshot.
+ */
+public final class ProviderSnapshot {
+
+  /** Empty snapshot. */
+  public static final ProviderSnapshot EMPTY = new ProviderSnapshot(0, Collections.<String, ShapeTemplate>emptyMap());
+
+  private final long version;
+  private final Map<String, ShapeTemplate> shapes;
+
+  private ProviderSnapshot(long version, Map<String, ShapeTemplate> shapes) {
+    this.version = version;
+    this.shapes = shapes;
+  }
+
+  /**
+   * Creates snapshot succeeding this one.
+   * @param shapes shapes by type
+   * @return new snapshot
+   */
+  public ProviderSnapshot next(Map<String, ShapeTemplate> shapes) {
+    return new ProviderSnapshot(version + 1, Collections.unmodifiableMap(shapes));
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public Map<String, ShapeTemplate> getShapes() {
+    return shapes;
+  }
+
+  public boolean isEmpty() {
+    return shapes.isEmpty();
+  }
+}
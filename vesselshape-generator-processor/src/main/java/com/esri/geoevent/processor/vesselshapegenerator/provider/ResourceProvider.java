@@ -23,23 +23,32 @@
 */
 package com.esri.geoevent.processor.vesselshapegenerator.provider;
 
+import com.esri.geoevent.processor.vesselshapegenerator.model.BinaryCatalog;
 import com.esri.geoevent.processor.vesselshapegenerator.model.Parser;
-import com.esri.geoevent.processor.vesselshapegenerator.model.Shape;
+import com.esri.geoevent.processor.vesselshapegenerator.model.ShapeTemplate;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.osgi.framework.BundleContext;
 
 /**
  * Resource provider.
+ * <p>
+ * Reads a JSON catalog or, if the resource ends with <code>.vsgc</code>, a
+ * binary catalog from the bundle.
  */
 public class ResourceProvider implements Provider {
 	private static final Log LOG = LogFactory.getLog(ResourceProvider.class);
   private final BundleContext bundleContext;
   private final String uri;
-  private Map<String, Shape> cache;
+  private final List<ProviderListener> listeners = new CopyOnWriteArrayList<>();
+  private volatile ProviderSnapshot snapshot = ProviderSnapshot.EMPTY;
 
   public ResourceProvider(BundleContext bundleContext, String uri) {
     this.bundleContext = bundleContext;
@@ -47,18 +56,49 @@ public class ResourceProvider implements Provider {
   }
 
   @Override
-  public Map<String, Shape> readShapes() throws ProviderException {
-    if (cache == null)
-      throw new ProviderException("No data available for provider.");
-    return cache;
+  public ProviderSnapshot getSnapshot() {
+    return snapshot;
+  }
+
+  @Override
+  public void addListener(ProviderListener listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void removeListener(ProviderListener listener) {
+    listeners.remove(listener);
   }
   
   public void init() {
     try (InputStream inputStream = bundleContext.getBundle().getEntry(uri).openStream();) {
-      Parser parser = new Parser();
-      cache = parser.parse(inputStream);
+      Map<String, ShapeTemplate> shapes;
+      if (uri.toLowerCase().endsWith(BinaryCatalog.EXTENSION)) {
+        shapes = BinaryCatalog.read(ByteBuffer.wrap(readContent(inputStream)));
+      } else {
+        Parser parser = new Parser();
+        shapes = parser.parse(inputStream);
+      }
+      snapshot = snapshot.next(shapes);
+      for (ProviderListener listener : listeners) {
+        listener.shapesChanged(this);
+      }
     } catch (IOException ex) {
       LOG.error(String.format("Error reading shapes definitions from: %s", uri), ex);
     }
   }
+
+  /**
+   * Reads bundle entry; bundle entries cannot be mapped, so the templates
+   * read their rings from the heap copy.
+   */
+  private static byte[] readContent(InputStream inputStream) throws IOException {
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int count;
+    while ((count = inputStream.read(buffer)) >= 0) {
+      content.write(buffer, 0, count);
+    }
+    return content.toByteArray();
+  }
 }
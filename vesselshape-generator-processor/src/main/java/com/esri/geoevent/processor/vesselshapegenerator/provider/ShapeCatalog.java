@@ -0,0 +1,111 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.provider;
+
+import com.esri.geoevent.processor.vesselshapegenerator.model.ShapeRegistry;
+import com.esri.geoevent.processor.vesselshapegenerator.model.ShapeTemplate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Shape catalog.
+ * <p>
+ * Merges the shapes of all providers into a single {@link ShapeRegistry},
+ * rebuilt whenever any provider publishes a newer snapshot and published
+ * through a volatile reference; earlier providers take precedence over
+ * later ones.
+ */
+public class ShapeCatalog implements ProviderListener {
+
+  private static final Log LOG = LogFactory.getLog(ShapeCatalog.class);
+
+  private final List<Provider> providers;
+  private volatile ShapeRegistry registry = ShapeRegistry.EMPTY;
+  private volatile long[] builtVersions;
+
+  public ShapeCatalog(List<Provider> providers) {
+    this.providers = providers;
+    this.builtVersions = new long[providers.size()];
+    Arrays.fill(builtVersions, -1);
+    for (Provider provider : providers) {
+      provider.addListener(this);
+    }
+    rebuild();
+  }
+
+  /**
+   * Gets current registry.
+   * @return registry
+   */
+  public ShapeRegistry getRegistry() {
+    return registry;
+  }
+
+  @Override
+  public void shapesChanged(Provider provider) {
+    rebuild();
+  }
+
+  public void destroy() {
+    for (Provider provider : providers) {
+      provider.removeListener(this);
+    }
+  }
+
+  /**
+   * Checks if the registry was built from older provider snapshots.
+   * @return <code>true</code> if any provider published a newer snapshot
+   */
+  public boolean isStale() {
+    long[] versions = builtVersions;
+    for (int i = 0; i < versions.length; i++) {
+      if (providers.get(i).getSnapshot().getVersion() != versions[i]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private synchronized void rebuild() {
+    if (!isStale()) {
+      return;
+    }
+    long[] versions = new long[providers.size()];
+    List<Map<String, ShapeTemplate>> catalogs = new ArrayList<>();
+    for (int i = 0; i < versions.length; i++) {
+      ProviderSnapshot snapshot = providers.get(i).getSnapshot();
+      versions[i] = snapshot.getVersion();
+      if (!snapshot.isEmpty()) {
+        catalogs.add(snapshot.getShapes());
+      }
+    }
+    registry = ShapeRegistry.build(catalogs, registry.getVersion() + 1);
+    builtVersions = versions;
+    LOG.debug(String.format("Shape registry rebuilt; version: %d", registry.getVersion()));
+  }
+}
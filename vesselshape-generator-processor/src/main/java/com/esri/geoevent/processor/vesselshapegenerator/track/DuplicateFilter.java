@@ -0,0 +1,155 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.track;
+
+import com.esri.geoevent.processor.vesselshapegenerator.model.GeneratedShape;
+
+/**
+ * Duplicate report filter.
+ * <p>
+ * Remembers report fingerprints (track, report time and position) for a
+ * time window in a fixed size, 4-way set associative table; a full set
+ * replaces its oldest fingerprint, so memory never grows and the oldest
+ * reports are forgotten first under overload. The hull generated for the
+ * first copy of a report is kept with its fingerprint so later copies can
+ * reuse it.
+ */
+public final class DuplicateFilter {
+
+  /**
+   * What to do with a duplicate report.
+   */
+  public enum Mode {
+    /** Filter disabled. */
+    OFF,
+    /** Drop the duplicate. */
+    DROP,
+    /** Output the duplicate with the hull of the first copy. */
+    REUSE
+  }
+
+  private static final int WAYS = 4;
+  private static final int LOCK_COUNT = 64;
+
+  private final long[] fingerprints;
+  // first arrival time of the fingerprint
+  private final long[] stamps;
+  private final GeneratedShape[] shapes;
+  private final Object[] locks = new Object[LOCK_COUNT];
+  private final int setMask;
+  private final long window;
+
+  /**
+   * Creates filter.
+   * @param capacity number of remembered reports; rounded up to a power of two
+   * @param window time window in milliseconds
+   */
+  public DuplicateFilter(int capacity, long window) {
+    int slots = WAYS;
+    while (slots < capacity) {
+      slots <<= 1;
+    }
+    fingerprints = new long[slots];
+    stamps = new long[slots];
+    shapes = new GeneratedShape[slots];
+    setMask = slots / WAYS - 1;
+    this.window = window;
+    for (int i = 0; i < LOCK_COUNT; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  /**
+   * Computes report fingerprint.
+   * @param trackKey track key
+   * @param time report time
+   * @param x reported x
+   * @param y reported y
+   * @return fingerprint; never 0
+   */
+  public static long fingerprint(long trackKey, long time, double x, double y) {
+    long h = LongKeyTable.mix(trackKey);
+    h = LongKeyTable.mix(h ^ time);
+    h = LongKeyTable.mix(h ^ Double.doubleToLongBits(x));
+    h = LongKeyTable.mix(h ^ Double.doubleToLongBits(y));
+    return h != 0 ? h : 1;
+  }
+
+  /**
+   * Records report.
+   * @param fingerprint report fingerprint
+   * @param now current time in milliseconds
+   * @return slot of a new report or <code>~slot</code> (negative) of the
+   * first copy if the report is a duplicate within the window
+   */
+  public int record(long fingerprint, long now) {
+    int set = (int) (fingerprint >>> 32) & setMask;
+    int base = set * WAYS;
+    synchronized (locks[set & (LOCK_COUNT - 1)]) {
+      int oldest = base;
+      long oldestStamp = Long.MAX_VALUE;
+      for (int slot = base; slot < base + WAYS; slot++) {
+        if (fingerprints[slot] == fingerprint && now - stamps[slot] <= window) {
+          return ~slot;
+        }
+        // empty slots go first
+        long stamp = fingerprints[slot] != 0 ? stamps[slot] : Long.MIN_VALUE;
+        if (stamp < oldestStamp) {
+          oldest = slot;
+          oldestStamp = stamp;
+        }
+      }
+      fingerprints[oldest] = fingerprint;
+      stamps[oldest] = now;
+      shapes[oldest] = null;
+      return oldest;
+    }
+  }
+
+  /**
+   * Gets hull of the first copy.
+   * @param slot slot returned by {@link #record}
+   * @param fingerprint report fingerprint
+   * @return hull and its measures or <code>null</code> if not generated (yet) or forgotten
+   */
+  public GeneratedShape getShape(int slot, long fingerprint) {
+    synchronized (locks[(slot / WAYS) & (LOCK_COUNT - 1)]) {
+      return fingerprints[slot] == fingerprint ? shapes[slot] : null;
+    }
+  }
+
+  /**
+   * Stores hull generated for the report.
+   * @param slot slot returned by {@link #record}
+   * @param fingerprint report fingerprint
+   * @param shape hull and its measures
+   */
+  public void setShape(int slot, long fingerprint, GeneratedShape shape) {
+    synchronized (locks[(slot / WAYS) & (LOCK_COUNT - 1)]) {
+      if (fingerprints[slot] == fingerprint) {
+        shapes[slot] = shape;
+      }
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.track;
+
+import com.esri.geoevent.processor.vesselshapegenerator.model.GeneratedShape;
+
+/**
+ * Per track cache of the last generated hull.
+ * <p>
+ * Holds the inputs the hull was generated from: the Web Mercator position,
+ * bearing, dimensions, vessel type and shape registry version. A new report
+ * hits the cache when its position and bearing are within the tolerances
+ * of the cached ones and everything else is unchanged. The cached inputs
+ * are only replaced on a miss, so slow drift still regenerates the hull
+ * once it exceeds the tolerance.
+ */
+public final class HullCache {
+
+  /**
+   * What to do with an event hitting the cache.
+   */
+  public enum Mode {
+    /** Cache disabled. */
+    OFF,
+    /** Reuse the cached hull. */
+    REUSE,
+    /** Drop the event. */
+    SUPPRESS
+  }
+
+  private final TrackTable<Entry> table;
+  private final double distanceTolerance;
+  private final double angleTolerance;
+
+  /**
+   * Creates cache.
+   * @param capacity maximum number of tracks
+   * @param distanceTolerance position tolerance in meters
+   * @param angleTolerance bearing tolerance in degrees
+   */
+  public HullCache(int capacity, double distanceTolerance, double angleTolerance) {
+    this.table = new TrackTable<>(capacity, 0);
+    this.distanceTolerance = distanceTolerance;
+    this.angleTolerance = angleTolerance;
+  }
+
+  /**
+   * Finds cached hull.
+   * @param key track key
+   * @param x Web Mercator x of the reported position
+   * @param y Web Mercator y of the reported position
+   * @param ratio Web Mercator units per meter at the position
+   * @param bearing bearing in degrees
+   * @param vessel dimensions and vessel type
+   * @param registryVersion current shape registry version
+   * @param now current time in milliseconds
+   * @return cached hull and its measures or <code>null</code>
+   */
+  public GeneratedShape find(long key, double x, double y, double ratio, double bearing, StaticDataStore.Values vessel, long registryVersion, long now) {
+    Entry entry = table.get(key, now);
+    if (entry == null
+        || entry.registryVersion != registryVersion
+        || entry.bow != vessel.bow || entry.stern != vessel.stern
+        || entry.port != vessel.port || entry.starboard != vessel.starboard
+        || !(entry.type == null ? vessel.type == null : entry.type.equals(vessel.type))) {
+      return null;
+    }
+    double dx = x - entry.x;
+    double dy = y - entry.y;
+    double tolerance = distanceTolerance * ratio;
+    if (dx * dx + dy * dy > tolerance * tolerance) {
+      return null;
+    }
+    double turn = Math.abs(bearing - entry.bearing) % 360.0;
+    if (Math.min(turn, 360.0 - turn) > angleTolerance) {
+      return null;
+    }
+    return entry.shape;
+  }
+
+  /**
+   * Stores generated hull.
+   * @param key track key
+   * @param x Web Mercator x of the reported position
+   * @param y Web Mercator y of the reported position
+   * @param bearing bearing in degrees
+   * @param vessel dimensions and vessel type
+   * @param registryVersion shape registry version
+   * @param shape generated hull and its measures
+   * @param now current time in milliseconds
+   */
+  public void store(long key, double x, double y, double bearing, StaticDataStore.Values vessel, long registryVersion, GeneratedShape shape, long now) {
+    table.put(key, new Entry(x, y, bearing, vessel, registryVersion, shape), now);
+  }
+
+  public int size() {
+    return table.size();
+  }
+
+  private static final class Entry {
+    final double x;
+    final double y;
+    final double bearing;
+    final double bow;
+    final double stern;
+    final double port;
+    final double starboard;
+    final Object type;
+    final long registryVersion;
+    final GeneratedShape shape;
+
+    Entry(double x, double y, double bearing, StaticDataStore.Values vessel, long registryVersion, GeneratedShape shape) {
+      this.x = x;
+      this.y = y;
+      this.bearing = bearing;
+      this.bow = vessel.bow;
+      this.stern = vessel.stern;
+      this.port = vessel.port;
+      this.starboard = vessel.starboard;
+      this.type = vessel.type;
+      this.registryVersion = registryVersion;
+      this.shape = shape;
+    }
+  }
+}
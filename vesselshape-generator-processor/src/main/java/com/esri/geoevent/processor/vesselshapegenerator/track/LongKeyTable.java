@@ -0,0 +1,290 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.track;
+
+/**
+ * Bounded table with primitive <code>long</code> keys.
+ * <p>
+ * Keys are spread over independently locked segments; each segment is an
+ * open addressing table with linear probing and backward shift deletion
+ * that grows up to its share of the capacity. Every entry carries a stamp
+ * which orders expiry and eviction; subclasses decide what the stamp means
+ * and keep their values in per slot arrays of their segments. When a full
+ * segment needs room, expired entries are removed first, but only once the
+ * oldest stamp of the segment can have expired, so a table whose entries
+ * never expire never scans. Otherwise the entry with the oldest stamp among
+ * a few neighbouring entries is evicted.
+ * @param <S> segment type
+ */
+abstract class LongKeyTable<S extends LongKeyTable.Segment<?>> {
+
+  private static final int SEGMENT_COUNT = 32;
+  private static final int INITIAL_SLOTS = 256;
+  private static final int EVICTION_SAMPLE = 16;
+
+  private final Object[] segments = new Object[SEGMENT_COUNT];
+
+  /**
+   * Creates table.
+   * @param capacity maximum number of keys
+   * @param ttl time to live in stamp units; 0 or less never expires
+   */
+  LongKeyTable(int capacity, long ttl) {
+    int segmentCapacity = Math.max(1, (capacity + SEGMENT_COUNT - 1) / SEGMENT_COUNT);
+    for (int i = 0; i < SEGMENT_COUNT; i++) {
+      segments[i] = createSegment(segmentCapacity, ttl > 0 ? ttl : Long.MAX_VALUE);
+    }
+  }
+
+  /**
+   * Creates segment; called from the constructor.
+   * @param capacity maximum number of keys of the segment
+   * @param ttl time to live; <code>Long.MAX_VALUE</code> never expires
+   * @return segment
+   */
+  abstract S createSegment(int capacity, long ttl);
+
+  /**
+   * Gets number of stored keys, including expired ones not yet evicted.
+   * @return number of keys
+   */
+  public int size() {
+    int size = 0;
+    for (Object segment : segments) {
+      size += ((Segment<?>) segment).size();
+    }
+    return size;
+  }
+
+  @SuppressWarnings("unchecked")
+  final S segmentOf(long key) {
+    return (S) segments[(int) (mix(key) >>> 59) & (SEGMENT_COUNT - 1)];
+  }
+
+  // murmur3 finalizer
+  static long mix(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    key *= 0xc4ceb9fe1a85ec53L;
+    key ^= key >>> 33;
+    return key;
+  }
+
+  /**
+   * Segment; subclasses lock the segment around every operation.
+   * @param <A> per slot value storage
+   */
+  abstract static class Segment<A> {
+    private final int capacity;
+    private final int maxSlots;
+    private final long ttl;
+    private long[] keys;
+    // 0 marks an empty slot
+    private long[] stamps;
+    A values;
+    private int size;
+    // no entry expires before this stamp
+    private long expiry = Long.MAX_VALUE;
+
+    Segment(int capacity, long ttl) {
+      this.capacity = capacity;
+      this.ttl = ttl;
+      int slots = INITIAL_SLOTS;
+      while (slots * 3 / 4 < capacity) {
+        slots <<= 1;
+      }
+      this.maxSlots = slots;
+      allocateSlots(Math.min(INITIAL_SLOTS, maxSlots));
+    }
+
+    /**
+     * Allocates value storage.
+     * @param slots number of slots
+     * @return storage
+     */
+    abstract A allocate(int slots);
+
+    /**
+     * Moves value between slots.
+     * @param from source storage
+     * @param fromSlot source slot
+     * @param to target storage; the source storage when deleting
+     * @param toSlot target slot
+     */
+    abstract void move(A from, int fromSlot, A to, int toSlot);
+
+    /**
+     * Releases value of an emptied slot.
+     * @param slot slot
+     */
+    abstract void clear(int slot);
+
+    final synchronized int size() {
+      return size;
+    }
+
+    /**
+     * Finds slot of the key.
+     * @param key key
+     * @return slot or -1 if absent
+     */
+    final int find(long key) {
+      int mask = keys.length - 1;
+      for (int slot = (int) mix(key) & mask; stamps[slot] != 0; slot = (slot + 1) & mask) {
+        if (keys[slot] == key) {
+          return slot;
+        }
+      }
+      return -1;
+    }
+
+    final long getStamp(int slot) {
+      return stamps[slot];
+    }
+
+    /**
+     * Updates stamp of the entry.
+     * @param slot slot
+     * @param stamp stamp; raised to 1 as 0 marks empty slots
+     */
+    final void setStamp(int slot, long stamp) {
+      stamps[slot] = Math.max(stamp, 1);
+      if (ttl != Long.MAX_VALUE) {
+        expiry = Math.min(expiry, stamps[slot] + ttl);
+      }
+    }
+
+    final boolean isExpired(int slot, long now) {
+      return now - stamps[slot] > ttl;
+    }
+
+    /**
+     * Inserts absent key, making room if the segment is full. The value of
+     * the returned slot is left as cleared.
+     * @param key key
+     * @param stamp stamp of the entry
+     * @param now current stamp for expiry
+     * @return slot
+     */
+    final int insert(long key, long stamp, long now) {
+      if (size >= capacity) {
+        if (now > expiry) {
+          evictExpired(now);
+        }
+        if (size >= capacity) {
+          evictOldest(key);
+        }
+      } else if (size >= keys.length * 3 / 4 && keys.length < maxSlots) {
+        rehash(keys.length * 2);
+      }
+      int mask = keys.length - 1;
+      int slot = (int) mix(key) & mask;
+      while (stamps[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = key;
+      setStamp(slot, stamp);
+      size++;
+      return slot;
+    }
+
+    /**
+     * Deletes entry using backward shift deletion so no tombstones are needed.
+     * @param slot slot
+     */
+    final void delete(int slot) {
+      int mask = keys.length - 1;
+      int hole = slot;
+      for (int next = (hole + 1) & mask; stamps[next] != 0; next = (next + 1) & mask) {
+        int home = (int) mix(keys[next]) & mask;
+        // move the entry if the hole lies cyclically between its home slot and its slot
+        if (((next - home) & mask) >= ((next - hole) & mask)) {
+          keys[hole] = keys[next];
+          stamps[hole] = stamps[next];
+          move(values, next, values, hole);
+          hole = next;
+        }
+      }
+      stamps[hole] = 0;
+      clear(hole);
+      size--;
+    }
+
+    private void evictExpired(long now) {
+      long oldest = Long.MAX_VALUE;
+      for (int slot = 0; slot < keys.length; slot++) {
+        // backward shift may move a later entry into this slot
+        while (stamps[slot] != 0 && isExpired(slot, now)) {
+          delete(slot);
+        }
+        if (stamps[slot] != 0) {
+          oldest = Math.min(oldest, stamps[slot]);
+        }
+      }
+      expiry = oldest != Long.MAX_VALUE ? oldest + ttl : Long.MAX_VALUE;
+    }
+
+    private void evictOldest(long key) {
+      int mask = keys.length - 1;
+      int oldest = -1;
+      int sampled = 0;
+      int sample = Math.min(EVICTION_SAMPLE, size);
+      for (int slot = (int) mix(key) & mask; sampled < sample; slot = (slot + 1) & mask) {
+        if (stamps[slot] != 0) {
+          if (oldest < 0 || stamps[slot] < stamps[oldest]) {
+            oldest = slot;
+          }
+          sampled++;
+        }
+      }
+      delete(oldest);
+    }
+
+    private void rehash(int slots) {
+      long[] oldKeys = keys;
+      long[] oldStamps = stamps;
+      A oldValues = values;
+      allocateSlots(slots);
+      int mask = slots - 1;
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldStamps[i] != 0) {
+          int slot = (int) mix(oldKeys[i]) & mask;
+          while (stamps[slot] != 0) {
+            slot = (slot + 1) & mask;
+          }
+          keys[slot] = oldKeys[i];
+          stamps[slot] = oldStamps[i];
+          move(oldValues, i, values, slot);
+        }
+      }
+    }
+
+    private void allocateSlots(int slots) {
+      keys = new long[slots];
+      stamps = new long[slots];
+      values = allocate(slots);
+    }
+  }
+}
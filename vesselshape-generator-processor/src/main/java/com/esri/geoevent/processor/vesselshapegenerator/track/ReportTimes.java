@@ -0,0 +1,112 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.track;
+
+/**
+ * Last report time per track.
+ * <p>
+ * Primitive <code>long</code> to <code>long</code> map; entries never
+ * expire. When a full segment needs room, the track with the oldest report
+ * time among a few neighbouring entries is evicted.
+ */
+public final class ReportTimes extends LongKeyTable<ReportTimes.Segment> {
+
+  // marks an unknown time
+  private static final long EMPTY = Long.MIN_VALUE;
+
+  /**
+   * Creates map.
+   * @param capacity maximum number of tracks
+   */
+  public ReportTimes(int capacity) {
+    super(capacity, 0);
+  }
+
+  @Override
+  Segment createSegment(int capacity, long ttl) {
+    return new Segment(capacity, ttl);
+  }
+
+  /**
+   * Checks if the report is older than the last report of the track.
+   * @param key track key
+   * @param time report time in milliseconds
+   * @param tolerance accepted lateness in milliseconds
+   * @return <code>true</code> if the report is late beyond the tolerance
+   */
+  public boolean isStale(long key, long time, long tolerance) {
+    long last = segmentOf(key).get(key);
+    return last != EMPTY && time < last - tolerance;
+  }
+
+  /**
+   * Records report time; earlier times than the recorded one are ignored.
+   * @param key track key
+   * @param time report time in milliseconds
+   */
+  public void update(long key, long time) {
+    if (time != EMPTY) {
+      segmentOf(key).update(key, time);
+    }
+  }
+
+  static final class Segment extends LongKeyTable.Segment<long[]> {
+
+    Segment(int capacity, long ttl) {
+      super(capacity, ttl);
+    }
+
+    synchronized long get(long key) {
+      int slot = find(key);
+      return slot >= 0 ? values[slot] : EMPTY;
+    }
+
+    synchronized void update(long key, long time) {
+      int slot = find(key);
+      if (slot < 0) {
+        slot = insert(key, time, time);
+        values[slot] = time;
+      } else if (time > values[slot]) {
+        // the stamp orders eviction by report time
+        setStamp(slot, time);
+        values[slot] = time;
+      }
+    }
+
+    @Override
+    long[] allocate(int slots) {
+      return new long[slots];
+    }
+
+    @Override
+    void move(long[] from, int fromSlot, long[] to, int toSlot) {
+      to[toSlot] = from[fromSlot];
+    }
+
+    @Override
+    void clear(int slot) {
+      // nothing to release
+    }
+  }
+}
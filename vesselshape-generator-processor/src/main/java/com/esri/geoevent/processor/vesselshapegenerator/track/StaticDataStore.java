@@ -0,0 +1,210 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.track;
+
+import java.util.Arrays;
+
+/**
+ * Per track static vessel data store.
+ * <p>
+ * Keeps the latest dimensions and vessel type reported for each track
+ * (MMSI) so position reports without static data can be completed. Entries
+ * expire after the time to live since they were last updated; when a full
+ * segment has no expired entries the least recently updated of a few
+ * neighbouring entries is evicted, so memory stays bounded.
+ */
+public final class StaticDataStore extends LongKeyTable<StaticDataStore.Segment> {
+
+  /**
+   * Creates store.
+   * @param capacity maximum number of tracks
+   * @param ttl time to live in milliseconds
+   */
+  public StaticDataStore(int capacity, long ttl) {
+    super(capacity, ttl);
+  }
+
+  @Override
+  Segment createSegment(int capacity, long ttl) {
+    return new Segment(capacity, ttl);
+  }
+
+  /**
+   * Converts track id field value into store key.
+   * @param trackId track id; number or decimal string
+   * @return key or <code>-1</code> if the track id is not a non-negative integer
+   */
+  public static long key(Object trackId) {
+    if (trackId instanceof Long || trackId instanceof Integer || trackId instanceof Short) {
+      long key = ((Number) trackId).longValue();
+      return key >= 0 ? key : -1;
+    }
+    if (trackId instanceof String) {
+      String s = (String) trackId;
+      int length = s.length();
+      if (length == 0 || length > 18) {
+        return -1;
+      }
+      long key = 0;
+      for (int i = 0; i < length; i++) {
+        char c = s.charAt(i);
+        if (c < '0' || c > '9') {
+          return -1;
+        }
+        key = key * 10 + (c - '0');
+      }
+      return key;
+    }
+    return -1;
+  }
+
+  /**
+   * Stores static data of the track. <code>NaN</code> dimensions and
+   * <code>null</code> type keep the values stored before.
+   * @param key track key
+   * @param values reported values
+   * @param now current time in milliseconds
+   */
+  public void update(long key, Values values, long now) {
+    segmentOf(key).update(key, values, now);
+  }
+
+  /**
+   * Fills missing values from the store. Only <code>NaN</code> dimensions
+   * and <code>null</code> type are replaced.
+   * @param key track key
+   * @param values values to complete
+   * @param now current time in milliseconds
+   * @return <code>true</code> if any value was filled
+   */
+  public boolean complete(long key, Values values, long now) {
+    return segmentOf(key).complete(key, values, now);
+  }
+
+  /**
+   * Static values of a track.
+   */
+  public static final class Values {
+    public double bow;
+    public double stern;
+    public double port;
+    public double starboard;
+    public Object type;
+
+    public boolean hasDimensions() {
+      return !Double.isNaN(bow) && !Double.isNaN(stern) && !Double.isNaN(port) && !Double.isNaN(starboard);
+    }
+  }
+
+  static final class Segment extends LongKeyTable.Segment<Segment.Data> {
+
+    Segment(int capacity, long ttl) {
+      super(capacity, ttl);
+    }
+
+    synchronized void update(long key, Values values, long now) {
+      int slot = find(key);
+      if (slot < 0 || isExpired(slot, now)) {
+        if (slot >= 0) {
+          delete(slot);
+        }
+        slot = insert(key, now, now);
+        Arrays.fill(this.values.dims, 4 * slot, 4 * slot + 4, Float.NaN);
+      } else {
+        setStamp(slot, now);
+      }
+      int d = 4 * slot;
+      put(d, values.bow);
+      put(d + 1, values.stern);
+      put(d + 2, values.port);
+      put(d + 3, values.starboard);
+      if (values.type != null) {
+        this.values.types[slot] = values.type;
+      }
+    }
+
+    synchronized boolean complete(long key, Values values, long now) {
+      int slot = find(key);
+      if (slot < 0) {
+        return false;
+      }
+      if (isExpired(slot, now)) {
+        delete(slot);
+        return false;
+      }
+      float[] dims = this.values.dims;
+      int d = 4 * slot;
+      boolean filled = false;
+      if (!values.hasDimensions() && !Float.isNaN(dims[d]) && !Float.isNaN(dims[d + 1]) && !Float.isNaN(dims[d + 2]) && !Float.isNaN(dims[d + 3])) {
+        values.bow = dims[d];
+        values.stern = dims[d + 1];
+        values.port = dims[d + 2];
+        values.starboard = dims[d + 3];
+        filled = true;
+      }
+      Object type = this.values.types[slot];
+      if (values.type == null && type != null) {
+        values.type = type;
+        filled = true;
+      }
+      return filled;
+    }
+
+    private void put(int index, double value) {
+      if (!Double.isNaN(value)) {
+        values.dims[index] = (float) value;
+      }
+    }
+
+    @Override
+    Data allocate(int slots) {
+      return new Data(slots);
+    }
+
+    @Override
+    void move(Data from, int fromSlot, Data to, int toSlot) {
+      System.arraycopy(from.dims, 4 * fromSlot, to.dims, 4 * toSlot, 4);
+      to.types[toSlot] = from.types[fromSlot];
+    }
+
+    @Override
+    void clear(int slot) {
+      values.types[slot] = null;
+    }
+
+    /**
+     * Per slot values.
+     */
+    static final class Data {
+      // bow, stern, port, starboard per slot
+      final float[] dims;
+      final Object[] types;
+
+      Data(int slots) {
+        dims = new float[4 * slots];
+        types = new Object[slots];
+      }
+    }
+  }
+}
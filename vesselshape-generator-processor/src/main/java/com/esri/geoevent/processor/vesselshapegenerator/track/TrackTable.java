@@ -0,0 +1,132 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.track;
+
+/**
+ * Bounded per track table.
+ * <p>
+ * Maps primitive <code>long</code> track keys (see {@link StaticDataStore#key})
+ * to values; values updated in place guard their own state. Entries
+ * expire after the time to live since they were last stored or read; when
+ * a full segment has no expired entries the least recently used of a few
+ * neighbouring entries is evicted.
+ * @param <V> value type
+ */
+public final class TrackTable<V> extends LongKeyTable<TrackTable.Segment> {
+
+  /**
+   * Creates table.
+   * @param capacity maximum number of tracks
+   * @param ttl time to live in milliseconds; 0 or less never expires
+   */
+  public TrackTable(int capacity, long ttl) {
+    super(capacity, ttl);
+  }
+
+  @Override
+  Segment createSegment(int capacity, long ttl) {
+    return new Segment(capacity, ttl);
+  }
+
+  /**
+   * Gets value of the track.
+   * @param key track key
+   * @param now current time in milliseconds
+   * @return value or <code>null</code> if absent or expired
+   */
+  @SuppressWarnings("unchecked")
+  public V get(long key, long now) {
+    return (V) segmentOf(key).get(key, now);
+  }
+
+  /**
+   * Stores value of the track.
+   * @param key track key
+   * @param value value
+   * @param now current time in milliseconds
+   */
+  public void put(long key, V value, long now) {
+    segmentOf(key).put(key, value, now);
+  }
+
+  /**
+   * Removes track.
+   * @param key track key
+   */
+  public void remove(long key) {
+    segmentOf(key).remove(key);
+  }
+
+  static final class Segment extends LongKeyTable.Segment<Object[]> {
+
+    Segment(int capacity, long ttl) {
+      super(capacity, ttl);
+    }
+
+    synchronized Object get(long key, long now) {
+      int slot = find(key);
+      if (slot < 0) {
+        return null;
+      }
+      if (isExpired(slot, now)) {
+        delete(slot);
+        return null;
+      }
+      setStamp(slot, now);
+      return values[slot];
+    }
+
+    synchronized void put(long key, Object value, long now) {
+      int slot = find(key);
+      if (slot < 0) {
+        slot = insert(key, now, now);
+      } else {
+        setStamp(slot, now);
+      }
+      values[slot] = value;
+    }
+
+    synchronized void remove(long key) {
+      int slot = find(key);
+      if (slot >= 0) {
+        delete(slot);
+      }
+    }
+
+    @Override
+    Object[] allocate(int slots) {
+      return new Object[slots];
+    }
+
+    @Override
+    void move(Object[] from, int fromSlot, Object[] to, int toSlot) {
+      to[toSlot] = from[fromSlot];
+    }
+
+    @Override
+    void clear(int slot) {
+      values[slot] = null;
+    }
+  }
+}
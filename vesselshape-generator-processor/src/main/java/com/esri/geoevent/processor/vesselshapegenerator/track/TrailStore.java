@@ -0,0 +1,221 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.track;
+
+import com.esri.core.geometry.Geometry;
+import com.esri.core.geometry.GeometryEngine;
+import com.esri.core.geometry.MapGeometry;
+import com.esri.core.geometry.Polygon;
+import com.esri.core.geometry.SpatialReference;
+
+/**
+ * Per track swept trail.
+ * <p>
+ * Keeps the last hull pose of each track in Web Mercator and a ring buffer
+ * of swept segments, each the convex hull of two consecutive poses in the
+ * output spatial reference. A new report appends its segment and drops the
+ * segments beyond the maximum count or duration; reports older than the
+ * newest segment are not appended. The trail polygon is the union of the
+ * segments, so it is simple.
+ * <p>
+ * The union is kept as a sliding window over two stacks: the oldest
+ * segments hold the unions of themselves and every younger segment up to
+ * the split, and the younger segments are folded into one union as they
+ * arrive. Appending unions the new segment into the younger part, dropping
+ * just discards the oldest partial union, and the trail is the union of the
+ * two parts. When the older part runs empty the partial unions are rebuilt
+ * from the kept segments, once per window, so each report costs an
+ * amortized constant number of unions. Trails are updated in place under
+ * their own lock, and callers get copies of the trail polygon. Memory per
+ * track is bounded by the segment count.
+ */
+public final class TrailStore {
+
+  private final TrackTable<Trail> table;
+  private final int length;
+  private final long duration;
+
+  /**
+   * Creates store.
+   * @param capacity maximum number of tracks
+   * @param length maximum number of segments per track
+   * @param duration maximum age of a segment in milliseconds; also the time to live of a track
+   */
+  public TrailStore(int capacity, int length, long duration) {
+    this.table = new TrackTable<>(capacity, duration);
+    this.length = Math.max(1, length);
+    this.duration = duration > 0 ? duration : Long.MAX_VALUE;
+  }
+
+  /**
+   * Gets last pose of the track.
+   * @param key track key
+   * @param now current time in milliseconds
+   * @return interleaved Web Mercator x,y of the convex pose or <code>null</code>
+   */
+  public double[] getPose(long key, long now) {
+    Trail trail = table.get(key, now);
+    if (trail == null) {
+      return null;
+    }
+    synchronized (trail) {
+      return trail.pose;
+    }
+  }
+
+  /**
+   * Gets current trail of the track.
+   * @param key track key
+   * @param now current time in milliseconds
+   * @return copy of the trail polygon or <code>null</code>
+   */
+  public MapGeometry getGeometry(long key, long now) {
+    Trail trail = table.get(key, now);
+    if (trail == null) {
+      return null;
+    }
+    synchronized (trail) {
+      return trail.union != null ? new MapGeometry(trail.union.copy(), trail.spatialReference) : null;
+    }
+  }
+
+  /**
+   * Appends segment to the trail of the track.
+   * @param key track key
+   * @param pose new pose; interleaved Web Mercator x,y, not copied
+   * @param segment segment swept from the previous pose; interleaved x,y in the output spatial reference, not copied
+   * @param time report time in milliseconds
+   * @param spatialReference output spatial reference
+   * @param now current time in milliseconds
+   * @return copy of the trail polygon; unchanged if the report is older than the newest segment
+   */
+  public MapGeometry append(long key, double[] pose, double[] segment, long time, SpatialReference spatialReference, long now) {
+    Trail trail = table.get(key, now);
+    if (trail == null) {
+      trail = new Trail(length);
+      table.put(key, trail, now);
+    }
+    synchronized (trail) {
+      if (trail.spatialReference != null && !trail.spatialReference.equals(spatialReference)) {
+        // segments of another output spatial reference
+        trail.clear();
+      }
+      if (trail.count > 0 && time < trail.times[(trail.head + trail.count - 1) % length]) {
+        // late report; the trail already sweeps past it
+        return trail.union != null ? new MapGeometry(trail.union.copy(), trail.spatialReference) : null;
+      }
+      // segments are ordered by time; drop the expired ones and make room
+      while (trail.count > 0 && (trail.count == length || trail.times[trail.head] < time - duration)) {
+        trail.dropOldest(spatialReference);
+      }
+      int tail = (trail.head + trail.count) % length;
+      Polygon polygon = toPolygon(segment);
+      trail.segments[tail] = polygon;
+      trail.times[tail] = time;
+      trail.count++;
+      trail.younger = trail.younger != null ? union(trail.younger, polygon, spatialReference) : polygon;
+      trail.pose = pose;
+      trail.spatialReference = spatialReference;
+      if (trail.older > 0) {
+        trail.union = union(trail.partials[trail.head], trail.younger, spatialReference);
+      } else {
+        trail.union = trail.younger;
+      }
+      return new MapGeometry(trail.union.copy(), spatialReference);
+    }
+  }
+
+  public int size() {
+    return table.size();
+  }
+
+  private static Polygon toPolygon(double[] ring) {
+    Polygon polygon = new Polygon();
+    polygon.startPath(ring[0], ring[1]);
+    for (int i = 2; i < ring.length; i += 2) {
+      polygon.lineTo(ring[i], ring[i + 1]);
+    }
+    polygon.closeAllPaths();
+    return polygon;
+  }
+
+  private static Polygon union(Polygon a, Polygon b, SpatialReference spatialReference) {
+    return (Polygon) GeometryEngine.union(new Geometry[] {a, b}, spatialReference);
+  }
+
+  private static final class Trail {
+    // ring buffer of segments ordered by time from head
+    final Polygon[] segments;
+    final long[] times;
+    // union of the segment and the younger ones of the older part
+    final Polygon[] partials;
+    int head;
+    int count;
+    // segments in the older part, from head
+    int older;
+    // union of the segments after the older part
+    Polygon younger;
+    double[] pose;
+    Polygon union;
+    SpatialReference spatialReference;
+
+    Trail(int length) {
+      segments = new Polygon[length];
+      times = new long[length];
+      partials = new Polygon[length];
+    }
+
+    void dropOldest(SpatialReference spatialReference) {
+      int length = segments.length;
+      if (older == 0) {
+        // fold the younger part into partial unions, youngest first
+        Polygon partial = null;
+        for (int i = count - 1; i >= 0; i--) {
+          int slot = (head + i) % length;
+          partial = partial != null ? union(segments[slot], partial, spatialReference) : segments[slot];
+          partials[slot] = partial;
+        }
+        older = count;
+        younger = null;
+      }
+      segments[head] = null;
+      partials[head] = null;
+      head = (head + 1) % length;
+      count--;
+      older--;
+    }
+
+    void clear() {
+      for (int i = 0; i < segments.length; i++) {
+        segments[i] = null;
+        partials[i] = null;
+      }
+      head = 0;
+      count = 0;
+      older = 0;
+      younger = null;
+      union = null;
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class AreaOfInterestTest {
+
+  @Test
+  public void testEnvelope() {
+    AreaOfInterest area = AreaOfInterest.parse(" -10, 50, 20.5, 60 ");
+    assertTrue(area.contains(0, 55));
+    assertTrue(area.contains(-10, 50));
+    assertTrue(area.contains(20.5, 60));
+    assertFalse(area.contains(21, 55));
+    assertFalse(area.contains(0, 49.9));
+  }
+
+  @Test
+  public void testEmpty() {
+    assertNull(AreaOfInterest.parse(null));
+    assertNull(AreaOfInterest.parse("  "));
+  }
+
+  @Test
+  public void testInvalid() {
+    String[] texts = {"1,2,3", "3,0,1,2", "a,b,c,d", "LINESTRING (0 0, 1 1)", "POLYGON ((0 0, 1 1))", "POLYGON ((0 0, 1, 1 1))"};
+    for (String text : texts) {
+      try {
+        AreaOfInterest.parse(text);
+        fail(text);
+      } catch (IllegalArgumentException ex) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testPolygonWithHole() {
+    AreaOfInterest area = AreaOfInterest.parse("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (4 4, 6 4, 6 6, 4 6, 4 4))");
+    assertTrue(area.contains(1, 1));
+    assertTrue(area.contains(5, 3));
+    assertFalse(area.contains(5, 5));
+    assertFalse(area.contains(11, 5));
+  }
+
+  @Test
+  public void testGridMatchesRayCasting() {
+    Random random = new Random(7);
+    StringBuilder wkt = new StringBuilder("MULTIPOLYGON (");
+    double[][] rings = new double[][] {star(0, 0, 40, 15, 200, random), star(5, 3, 6, 2, 50, random), star(100, 100, 20, 5, 30, random)};
+    // the second ring is a hole of the first part
+    wkt.append("((").append(toWkt(rings[0])).append("), (").append(toWkt(rings[1])).append(")), ((").append(toWkt(rings[2])).append(")))");
+    AreaOfInterest area = AreaOfInterest.parse(wkt.toString());
+    int inside = 0;
+    for (int i = 0; i < 200000; i++) {
+      double x = -50 + 180 * random.nextDouble();
+      double y = -50 + 180 * random.nextDouble();
+      boolean expected = false;
+      for (double[] ring : rings) {
+        expected ^= rayCast(ring, x, y);
+      }
+      assertEquals(String.format("%s %s", x, y), expected, area.contains(x, y));
+      if (expected) {
+        inside++;
+      }
+    }
+    assertTrue(inside > 10000);
+  }
+
+  /**
+   * Creates star shaped ring with random radii.
+   */
+  private static double[] star(double cx, double cy, double outer, double inner, int points, Random random) {
+    double[] ring = new double[2 * points];
+    for (int i = 0; i < points; i++) {
+      double angle = 2 * Math.PI * i / points;
+      double radius = inner + (outer - inner) * random.nextDouble();
+      ring[2 * i] = cx + radius * Math.cos(angle);
+      ring[2 * i + 1] = cy + radius * Math.sin(angle);
+    }
+    return ring;
+  }
+
+  private static String toWkt(double[] ring) {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i <= ring.length; i += 2) {
+      int k = i % ring.length;
+      text.append(i > 0 ? ", " : "").append(ring[k]).append(' ').append(ring[k + 1]);
+    }
+    return text.toString();
+  }
+
+  private static boolean rayCast(double[] ring, double x, double y) {
+    boolean inside = false;
+    int n = ring.length / 2;
+    for (int i = 0, j = n - 1; i < n; j = i++) {
+      double ax = ring[2 * j], ay = ring[2 * j + 1];
+      double bx = ring[2 * i], by = ring[2 * i + 1];
+      if ((ay > y) != (by > y) && x < ax + (y - ay) * (bx - ax) / (by - ay)) {
+        inside = !inside;
+      }
+    }
+    return inside;
+  }
+}
@@ -0,0 +1,117 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertSame;
+
+import com.esri.ges.core.geoevent.FieldDefinition;
+import com.esri.ges.core.geoevent.FieldType;
+import com.esri.ges.core.geoevent.GeoEventDefinition;
+import com.esri.ges.manager.geoeventdefinition.GeoEventDefinitionManager;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class AugmentedDefinitionsTest {
+
+  private static FieldDefinition field(String name, FieldType type) {
+    FieldDefinition field = createNiceMock(FieldDefinition.class);
+    expect(field.getName()).andStubReturn(name);
+    expect(field.getType()).andStubReturn(type);
+    replay(field);
+    return field;
+  }
+
+  private static GeoEventDefinition definition(String guid, String name, List<FieldDefinition> fields) {
+    GeoEventDefinition definition = createNiceMock(GeoEventDefinition.class);
+    expect(definition.getGuid()).andStubReturn(guid);
+    expect(definition.getName()).andStubReturn(name);
+    expect(definition.getFieldDefinitions()).andStubReturn(fields);
+    return definition;
+  }
+
+  private static final List<FieldDefinition> INPUT_FIELDS = Arrays.asList(field("MMSI", FieldType.Long), field("Shape", FieldType.Geometry));
+  private static final List<FieldDefinition> EXTRA_FIELDS = Collections.singletonList(field("VesselShape", FieldType.Geometry));
+
+  @Test
+  public void testReusesMatchingDefinition() throws Exception {
+    GeoEventDefinition input = definition("in", "VesselFeed", INPUT_FIELDS);
+    GeoEventDefinition existing = definition("old", "VesselFeed_VesselShape",
+        Arrays.asList(field("MMSI", FieldType.Long), field("Shape", FieldType.Geometry), field("VesselShape", FieldType.Geometry)));
+    GeoEventDefinitionManager manager = createMock(GeoEventDefinitionManager.class);
+    expect(manager.searchGeoEventDefinition("VesselFeed_VesselShape", "owner")).andReturn(Collections.singletonList(existing));
+    replay(input, existing, manager);
+
+    AugmentedDefinitions definitions = new AugmentedDefinitions(manager, "owner", "_VesselShape", EXTRA_FIELDS);
+    assertSame(existing, definitions.get(input));
+    // cached by the input GUID
+    assertSame(existing, definitions.get(input));
+    verify(manager);
+  }
+
+  @Test
+  public void testRecreatesDefinitionWithOtherFields() throws Exception {
+    GeoEventDefinition input = definition("in", "VesselFeed", INPUT_FIELDS);
+    // same field count, but the extra field has another type
+    GeoEventDefinition existing = definition("old", "VesselFeed_VesselShape",
+        Arrays.asList(field("MMSI", FieldType.Long), field("Shape", FieldType.Geometry), field("VesselShape", FieldType.String)));
+    GeoEventDefinition augmented = definition("new", "VesselFeed_VesselShape", null);
+    expect(input.augment(EXTRA_FIELDS)).andReturn(augmented);
+    augmented.setName("VesselFeed_VesselShape");
+    augmented.setOwner("owner");
+    GeoEventDefinitionManager manager = createMock(GeoEventDefinitionManager.class);
+    expect(manager.searchGeoEventDefinition("VesselFeed_VesselShape", "owner")).andReturn(Collections.singletonList(existing));
+    manager.deleteGeoEventDefinition("old");
+    manager.addTemporaryGeoEventDefinition(augmented, true);
+    replay(input, existing, augmented, manager);
+
+    AugmentedDefinitions definitions = new AugmentedDefinitions(manager, "owner", "_VesselShape", EXTRA_FIELDS);
+    assertSame(augmented, definitions.get(input));
+    verify(input, manager);
+  }
+
+  @Test
+  public void testRecreatesDefinitionWithRenamedField() throws Exception {
+    GeoEventDefinition input = definition("in", "VesselFeed", INPUT_FIELDS);
+    GeoEventDefinition existing = definition("old", "VesselFeed_VesselShape",
+        Arrays.asList(field("TrackId", FieldType.Long), field("Shape", FieldType.Geometry), field("VesselShape", FieldType.Geometry)));
+    GeoEventDefinition augmented = definition("new", "VesselFeed_VesselShape", null);
+    expect(input.augment(EXTRA_FIELDS)).andReturn(augmented);
+    GeoEventDefinitionManager manager = createMock(GeoEventDefinitionManager.class);
+    expect(manager.searchGeoEventDefinition("VesselFeed_VesselShape", "owner")).andReturn(Collections.singletonList(existing));
+    manager.deleteGeoEventDefinition("old");
+    manager.addTemporaryGeoEventDefinition(augmented, true);
+    replay(input, existing, augmented, manager);
+
+    AugmentedDefinitions definitions = new AugmentedDefinitions(manager, "owner", "_VesselShape", EXTRA_FIELDS);
+    assertSame(augmented, definitions.get(input));
+    verify(manager);
+  }
+}
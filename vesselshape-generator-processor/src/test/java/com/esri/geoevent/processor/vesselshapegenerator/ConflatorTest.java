@@ -0,0 +1,135 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.esri.ges.core.geoevent.GeoEvent;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+public class ConflatorTest {
+
+  private static GeoEvent event() {
+    return EasyMock.createNiceMock(GeoEvent.class);
+  }
+
+  /**
+   * Records handled events by track.
+   */
+  private static final class Recorder implements Conflator.Handler {
+    final Map<Object, GeoEvent> handled = new ConcurrentHashMap<>();
+    final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public void handle(Object trackId, GeoEvent ge) {
+      handled.put(trackId, ge);
+      count.incrementAndGet();
+    }
+  }
+
+  @Test
+  public void testLatestEventWinsPerTrack() {
+    Recorder recorder = new Recorder();
+    Conflator conflator = new Conflator("test", 60000, recorder);
+    GeoEvent a1 = event(), a2 = event(), a3 = event(), b1 = event();
+    assertFalse(conflator.offer("a", a1));
+    assertTrue(conflator.offer("a", a2));
+    assertFalse(conflator.offer("b", b1));
+    assertTrue(conflator.offer("a", a3));
+    assertEquals(0, recorder.count.get());
+    conflator.shutdown();
+    assertEquals(2, recorder.count.get());
+    assertSame(a3, recorder.handled.get("a"));
+    assertSame(b1, recorder.handled.get("b"));
+  }
+
+  @Test
+  public void testFlushesOncePerInterval() throws Exception {
+    final CountDownLatch flushed = new CountDownLatch(1);
+    final AtomicInteger count = new AtomicInteger();
+    Conflator conflator = new Conflator("test", 20, new Conflator.Handler() {
+      @Override
+      public void handle(Object trackId, GeoEvent ge) {
+        count.incrementAndGet();
+        flushed.countDown();
+      }
+    });
+    conflator.offer("a", event());
+    conflator.offer("a", event());
+    assertTrue(flushed.await(5, TimeUnit.SECONDS));
+    assertEquals(1, count.get());
+    // nothing pending is left for the final flush
+    conflator.shutdown();
+    assertEquals(1, count.get());
+  }
+
+  @Test
+  public void testOffersAfterShutdownAreHandled() {
+    Recorder recorder = new Recorder();
+    Conflator conflator = new Conflator("test", 60000, recorder);
+    conflator.shutdown();
+    GeoEvent late = event();
+    assertFalse(conflator.offer("a", late));
+    assertSame(late, recorder.handled.get("a"));
+  }
+
+  @Test
+  public void testShutdownDrainsConcurrentOffers() throws Exception {
+    final Recorder recorder = new Recorder();
+    final Conflator conflator = new Conflator("test", 1, recorder);
+    final AtomicInteger offered = new AtomicInteger();
+    final CountDownLatch started = new CountDownLatch(4);
+    Thread[] offerers = new Thread[4];
+    for (int t = 0; t < offerers.length; t++) {
+      final int thread = t;
+      offerers[t] = new Thread() {
+        @Override
+        public void run() {
+          started.countDown();
+          // a distinct track per event, so every offered event must be handled
+          for (int i = 0; i < 20000; i++) {
+            conflator.offer(thread + "/" + i, event());
+            offered.incrementAndGet();
+          }
+        }
+      };
+      offerers[t].start();
+    }
+    started.await();
+    conflator.shutdown();
+    for (Thread offerer : offerers) {
+      offerer.join(30000);
+    }
+    assertEquals(offered.get(), recorder.count.get());
+  }
+}
@@ -0,0 +1,135 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.esri.core.geometry.GeometryEngine;
+import com.esri.core.geometry.MultiPoint;
+import com.esri.core.geometry.Point2D;
+import com.esri.core.geometry.SpatialReference;
+import org.junit.Test;
+
+public class CoordinateProjectionTest {
+
+  private static final double[] LATITUDES = {-85.05, -85.0, -60.0, -12.5, 0.0, 30.0, 60.0, 84.9, 85.0, 85.05};
+  private static final double[] LONGITUDES = {-179.5, -45.0, 0.0, 10.25, 179.5};
+  // World Mercator; ellipsoidal, so it takes the GeometryEngine fallback
+  private static final int WORLD_MERCATOR = 3395;
+
+  /**
+   * Creates interleaved x,y of all test positions in the spatial reference.
+   */
+  private static double[] positions(int wkid) {
+    double[] coords = new double[2 * LATITUDES.length * LONGITUDES.length];
+    int i = 0;
+    for (double latitude : LATITUDES) {
+      for (double longitude : LONGITUDES) {
+        coords[i++] = longitude;
+        coords[i++] = latitude;
+      }
+    }
+    return wkid == CoordinateProjection.WGS84 ? coords : project(coords, CoordinateProjection.WGS84, wkid);
+  }
+
+  private static double[] project(double[] coords, int from, int to) {
+    MultiPoint points = new MultiPoint();
+    for (int i = 0; i < coords.length; i += 2) {
+      points.add(coords[i], coords[i + 1]);
+    }
+    MultiPoint projected = (MultiPoint) GeometryEngine.project(points, SpatialReference.create(from), SpatialReference.create(to));
+    double[] result = new double[coords.length];
+    for (int i = 0; i < projected.getPointCount(); i++) {
+      Point2D pt = projected.getXY(i);
+      result[2 * i] = pt.x;
+      result[2 * i + 1] = pt.y;
+    }
+    return result;
+  }
+
+  private static void assertCoords(double[] expected, double[] actual, double tolerance) {
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals("coordinate " + i, expected[i], actual[i], tolerance);
+    }
+  }
+
+  private static void assertMatchesProject(int wkid, double meters, double degrees) {
+    CoordinateProjection projection = CoordinateProjection.create(wkid);
+    double[] input = positions(wkid);
+    double tolerance = wkid == CoordinateProjection.WGS84 ? degrees : meters;
+
+    double[] coords = input.clone();
+    projection.toWebMercator(coords, coords.length / 2);
+    assertCoords(project(input, wkid, CoordinateProjection.WEB_MERCATOR), coords, meters);
+
+    double[] back = coords.clone();
+    projection.fromWebMercator(back, back.length / 2);
+    assertCoords(project(coords, CoordinateProjection.WEB_MERCATOR, wkid), back, tolerance);
+    assertCoords(input, back, tolerance);
+  }
+
+  @Test
+  public void testGeographicMatchesProject() {
+    assertMatchesProject(CoordinateProjection.WGS84, 1e-3, 1e-9);
+  }
+
+  @Test
+  public void testGenericMatchesProject() {
+    assertMatchesProject(WORLD_MERCATOR, 1e-3, 1e-9);
+  }
+
+  @Test
+  public void testWebMercatorIsIdentity() {
+    double[] input = positions(CoordinateProjection.WEB_MERCATOR);
+    for (int wkid : new int[] {CoordinateProjection.WEB_MERCATOR, 3857, 102113, 900913}) {
+      CoordinateProjection projection = CoordinateProjection.create(wkid);
+      double[] coords = input.clone();
+      projection.toWebMercator(coords, coords.length / 2);
+      assertCoords(input, coords, 0.0);
+      projection.fromWebMercator(coords, coords.length / 2);
+      assertCoords(input, coords, 0.0);
+    }
+  }
+
+  @Test
+  public void testGeographicClampsPolarLatitudes() {
+    double[] coords = {0.0, 89.0, 0.0, -89.0};
+    CoordinateProjection.create(CoordinateProjection.WGS84).toWebMercator(coords, 2);
+    // half the world extent
+    assertEquals(20037508.342789244, coords[1], 1e-6);
+    assertEquals(-20037508.342789244, coords[3], 1e-6);
+  }
+
+  @Test
+  public void testProjectsOnlyCountVertices() {
+    double[] coords = {1000000.0, 2000000.0, 30.0, 40.0};
+    CoordinateProjection.create(WORLD_MERCATOR).toWebMercator(coords, 1);
+    // both share the equator scale but differ in y
+    assertEquals(1000000.0, coords[0], 1e-6);
+    assertTrue(coords[1] > 2000000.0);
+    assertEquals(30.0, coords[2], 0.0);
+    assertEquals(40.0, coords[3], 0.0);
+  }
+}
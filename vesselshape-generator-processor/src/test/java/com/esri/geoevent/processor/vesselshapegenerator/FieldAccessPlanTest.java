@@ -0,0 +1,105 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.esri.ges.core.geoevent.FieldDefinition;
+import com.esri.ges.core.geoevent.GeoEvent;
+import com.esri.ges.core.geoevent.GeoEventDefinition;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class FieldAccessPlanTest {
+
+  private static FieldDefinition field(String tag) {
+    FieldDefinition field = createNiceMock(FieldDefinition.class);
+    expect(field.getName()).andStubReturn(tag.toLowerCase());
+    expect(field.getTags()).andStubReturn(Collections.singletonList(tag));
+    replay(field);
+    return field;
+  }
+
+  /**
+   * Compiles plan for a definition with the required tags except one.
+   */
+  private static FieldAccessPlan planWithout(String missing) {
+    List<FieldDefinition> fields = new ArrayList<>();
+    for (String tag : FieldAccessPlan.REQUIRED_TAGS) {
+      if (!tag.equals(missing)) {
+        fields.add(field(tag));
+      }
+    }
+    GeoEventDefinition definition = createNiceMock(GeoEventDefinition.class);
+    expect(definition.getFieldDefinitions()).andStubReturn(fields);
+    replay(definition);
+    return FieldAccessPlan.compile(definition);
+  }
+
+  @Test
+  public void testCompletePlan() {
+    FieldAccessPlan plan = planWithout(null);
+    assertNull(plan.getMissingTag(false));
+    assertNull(plan.getMissingTag(true));
+  }
+
+  @Test
+  public void testReportsMissingPositionTag() {
+    FieldAccessPlan plan = planWithout("VESSEL_BEARING");
+    assertEquals("VESSEL_BEARING", plan.getMissingTag(false));
+    // static data cannot supply the heading
+    assertEquals("VESSEL_BEARING", plan.getMissingTag(true));
+  }
+
+  @Test
+  public void testReportsMissingStaticTag() {
+    FieldAccessPlan plan = planWithout("VESSEL_STERN");
+    assertEquals("VESSEL_STERN", plan.getMissingTag(false));
+    // static data may supply the dimensions
+    assertNull(plan.getMissingTag(true));
+  }
+
+  @Test
+  public void testReadsFieldsByTagIndex() {
+    FieldAccessPlan plan = planWithout("VESSEL_TYPE");
+    // required tags in order without VESSEL_TYPE: GEOMETRY, TRACK_ID, VESSEL_BEARING, VESSEL_BOW, ...
+    GeoEvent ge = createNiceMock(GeoEvent.class);
+    expect(ge.getField(1)).andStubReturn("123");
+    expect(ge.getField(2)).andStubReturn(90);
+    expect(ge.getField(3)).andStubReturn("not a number");
+    replay(ge);
+    assertEquals("123", plan.getTrackId(ge));
+    assertNull(plan.getVesselType(ge));
+    assertEquals(90.0, plan.getBearing(ge), 0.0);
+    assertTrue(Double.isNaN(plan.getBow(ge)));
+    assertTrue(Double.isNaN(plan.getCourse(ge)));
+  }
+}
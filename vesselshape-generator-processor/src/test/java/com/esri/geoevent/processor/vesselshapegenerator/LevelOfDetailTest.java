@@ -0,0 +1,78 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.esri.geoevent.processor.vesselshapegenerator.model.ShapeTemplate;
+import org.junit.Test;
+
+public class LevelOfDetailTest {
+
+  @Test
+  public void testFixedLevels() {
+    assertSame(LevelOfDetail.FULL, LevelOfDetail.parse("Full", null));
+    assertSame(LevelOfDetail.FULL, LevelOfDetail.parse(null, null));
+    assertEquals(ShapeTemplate.LEVEL_SIMPLIFIED, LevelOfDetail.parse(" simplified ", null).select(1000));
+    assertEquals(ShapeTemplate.LEVEL_COARSE, LevelOfDetail.parse("Coarse", "1,2,3").select(1000));
+    assertEquals(ShapeTemplate.LEVEL_ARROW, LevelOfDetail.parse("ARROW", null).select(1000));
+    assertEquals(ShapeTemplate.LEVEL_FULL, LevelOfDetail.FULL.select(1));
+  }
+
+  @Test
+  public void testThresholds() {
+    LevelOfDetail detail = LevelOfDetail.parse("By Length", "25, 75, 200");
+    assertEquals(ShapeTemplate.LEVEL_ARROW, detail.select(0));
+    assertEquals(ShapeTemplate.LEVEL_ARROW, detail.select(24.9));
+    assertEquals(ShapeTemplate.LEVEL_COARSE, detail.select(25));
+    assertEquals(ShapeTemplate.LEVEL_COARSE, detail.select(74.9));
+    assertEquals(ShapeTemplate.LEVEL_SIMPLIFIED, detail.select(75));
+    assertEquals(ShapeTemplate.LEVEL_SIMPLIFIED, detail.select(199.9));
+    assertEquals(ShapeTemplate.LEVEL_FULL, detail.select(200));
+    assertEquals(ShapeTemplate.LEVEL_FULL, detail.select(400));
+  }
+
+  @Test
+  public void testEqualThresholdsSkipLevels() {
+    LevelOfDetail detail = LevelOfDetail.parse("By Length", "50,50,50");
+    assertEquals(ShapeTemplate.LEVEL_ARROW, detail.select(49));
+    assertEquals(ShapeTemplate.LEVEL_FULL, detail.select(50));
+  }
+
+  @Test
+  public void testInvalid() {
+    String[][] values = {{"Medium", null}, {"By Length", null}, {"By Length", "25,75"}, {"By Length", "25,75,200,400"},
+        {"By Length", "25,x,200"}, {"By Length", "75,25,200"}};
+    for (String[] value : values) {
+      try {
+        LevelOfDetail.parse(value[0], value[1]);
+        fail(value[0] + " " + value[1]);
+      } catch (IllegalArgumentException ex) {
+        // expected
+      }
+    }
+  }
+}
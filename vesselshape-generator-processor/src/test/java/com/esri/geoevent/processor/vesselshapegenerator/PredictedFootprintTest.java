@@ -0,0 +1,178 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.esri.geoevent.processor.vesselshapegenerator.model.ShapeTemplate;
+import org.junit.Test;
+
+public class PredictedFootprintTest {
+
+  private static final double WIDTH = 20;
+  private static final double LENGTH = 100;
+  private static final double X_SHIFT = 4;
+  private static final double Y_SHIFT = -30;
+  private static final double KNOTS = 1852.0 / 3600.0;
+
+  private static ShapeTemplate hull() {
+    return ShapeTemplate.create("70", new double[] {0.1, 0.4, 0.3, 0.5, 1.0, 0.5}, 3, new double[] {1.0, 0.5, 0.3, 0.5, 0.1, 0.4}, 3)
+        .getConvexHull();
+  }
+
+  private static double[] buffer(PredictedFootprint footprint, ShapeTemplate hull) {
+    return new double[2 * footprint.getBufferSize(hull.getVertexCount())];
+  }
+
+  /**
+   * Generates the vessel pose at the position.
+   */
+  private static double[] pose(double x, double y, double heading, ShapeTemplate hull) {
+    double[] coords = new double[4 * hull.getVertexCount()];
+    int count = new PredictedFootprint(60, 60).generate(x, y, X_SHIFT, Y_SHIFT, WIDTH, LENGTH, heading, 1.0, hull,
+        0.0, Double.NaN, Double.NaN, coords);
+    double[] pose = new double[2 * count];
+    System.arraycopy(coords, 0, pose, 0, pose.length);
+    return pose;
+  }
+
+  private static void assertConvexAndContains(double[] ring, int count, double[] points) {
+    double area = 0;
+    for (int i = 0; i < count; i++) {
+      int j = (i + 1) % count;
+      area += ring[2 * i] * ring[2 * j + 1] - ring[2 * j] * ring[2 * i + 1];
+    }
+    // clockwise ring: every point lies on the right of every edge
+    assertTrue(area < 0);
+    for (int i = 0; i < count; i++) {
+      int j = (i + 1) % count;
+      int k = (i + 2) % count;
+      double ex = ring[2 * j] - ring[2 * i], ey = ring[2 * j + 1] - ring[2 * i + 1];
+      assertTrue(ex * (ring[2 * k + 1] - ring[2 * i + 1]) - ey * (ring[2 * k] - ring[2 * i]) <= 1e-9);
+      for (int p = 0; p < points.length; p += 2) {
+        assertTrue(ex * (points[p + 1] - ring[2 * i + 1]) - ey * (points[p] - ring[2 * i]) <= 1e-6);
+      }
+    }
+  }
+
+  private static double area(double[] ring, int count) {
+    double area = 0;
+    for (int i = 0; i < count; i++) {
+      int j = (i + 1) % count;
+      area += ring[2 * i] * ring[2 * j + 1] - ring[2 * j] * ring[2 * i + 1];
+    }
+    return Math.abs(area) / 2;
+  }
+
+  @Test
+  public void testStationaryVesselGetsItsHull() {
+    ShapeTemplate hull = hull();
+    PredictedFootprint footprint = new PredictedFootprint(600, 60);
+    double[] coords = buffer(footprint, hull);
+    assertEquals(hull.getVertexCount(), footprint.generate(0, 0, X_SHIFT, Y_SHIFT, WIDTH, LENGTH, 45, 1.0, hull,
+        0.0, 90, 10, coords));
+    // unavailable speed
+    assertEquals(hull.getVertexCount(), footprint.generate(0, 0, X_SHIFT, Y_SHIFT, WIDTH, LENGTH, 45, 1.0, hull,
+        102.3, 90, Double.NaN, coords));
+  }
+
+  @Test
+  public void testStraightSweep() {
+    ShapeTemplate hull = hull();
+    PredictedFootprint footprint = new PredictedFootprint(600, 60);
+    double[] coords = buffer(footprint, hull);
+    double heading = 30;
+    double course = 40;
+    int count = footprint.generate(0, 0, X_SHIFT, Y_SHIFT, WIDTH, LENGTH, heading, 1.0, hull, 10, course, Double.NaN, coords);
+    double distance = 10 * KNOTS * 600;
+    double endX = distance * Math.sin(Math.toRadians(course));
+    double endY = distance * Math.cos(Math.toRadians(course));
+    double[] start = pose(0, 0, heading, hull);
+    double[] end = pose(endX, endY, heading, hull);
+    double[] points = new double[start.length + end.length];
+    System.arraycopy(start, 0, points, 0, start.length);
+    System.arraycopy(end, 0, points, start.length, end.length);
+    assertConvexAndContains(coords, count, points);
+    // the swept area is the hull plus the hull width across the course times the distance
+    double minSide = Double.POSITIVE_INFINITY, maxSide = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < start.length; i += 2) {
+      double side = start[i] * Math.cos(Math.toRadians(course)) - start[i + 1] * Math.sin(Math.toRadians(course));
+      minSide = Math.min(minSide, side);
+      maxSide = Math.max(maxSide, side);
+    }
+    assertEquals(area(start, start.length / 2) + (maxSide - minSide) * distance, area(coords, count), 1e-6 * area(coords, count));
+  }
+
+  @Test
+  public void testTurnContainsSampledPoses() {
+    ShapeTemplate hull = hull();
+    int horizon = 610;
+    int step = 60;
+    PredictedFootprint footprint = new PredictedFootprint(horizon, step);
+    double[] coords = buffer(footprint, hull);
+    double heading = 10;
+    double course = 15;
+    double speed = 12;
+    double rateOfTurn = 20; // degrees per minute
+    int count = footprint.generate(0, 0, X_SHIFT, Y_SHIFT, WIDTH, LENGTH, heading, 1.0, hull, speed, course, rateOfTurn, coords);
+    // integrate the arc at the midpoint course of each step
+    double x = 0, y = 0;
+    double turn = rateOfTurn / 60.0;
+    for (int time = 0; ; time = Math.min(time + step, horizon)) {
+      assertConvexAndContains(coords, count, pose(x, y, heading + turn * time, hull));
+      if (time == horizon) {
+        break;
+      }
+      double interval = Math.min(time + step, horizon) - time;
+      double courseRadians = Math.toRadians(course + turn * (time + interval / 2));
+      x += speed * KNOTS * interval * Math.sin(courseRadians);
+      y += speed * KNOTS * interval * Math.cos(courseRadians);
+    }
+  }
+
+  @Test
+  public void testSlowTurnApproachesStraightSweep() {
+    ShapeTemplate hull = hull();
+    PredictedFootprint footprint = new PredictedFootprint(600, 60);
+    double[] coords = buffer(footprint, hull);
+    double straight = area(coords, footprint.generate(0, 0, X_SHIFT, Y_SHIFT, WIDTH, LENGTH, 30, 1.0, hull, 10, 30, Double.NaN, coords));
+    double turning = area(coords, footprint.generate(0, 0, X_SHIFT, Y_SHIFT, WIDTH, LENGTH, 30, 1.0, hull, 10, 30, 1e-6, coords));
+    assertEquals(straight, turning, 1e-5 * straight);
+  }
+
+  @Test
+  public void testInvalidParameters() {
+    int[][] values = {{0, 60}, {600, 0}, {-1, 60}};
+    for (int[] value : values) {
+      try {
+        new PredictedFootprint(value[0], value[1]);
+        fail(value[0] + "," + value[1]);
+      } catch (IllegalArgumentException ex) {
+        // expected
+      }
+    }
+  }
+}
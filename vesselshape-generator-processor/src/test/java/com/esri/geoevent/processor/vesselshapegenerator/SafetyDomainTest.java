@@ -0,0 +1,143 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class SafetyDomainTest {
+
+  private static final double CX = 100.0;
+  private static final double CY = 200.0;
+  // map units per meter
+  private static final double RATIO = 2.0;
+
+  private static double[] generate(SafetyDomain domain, double shipLength, double speed, double heading) {
+    double[] coords = new double[2 * domain.getVertexCount()];
+    assertEquals(domain.getVertexCount(), domain.generate(CX, CY, shipLength, speed, heading, RATIO, coords));
+    return coords;
+  }
+
+  private static double distance(double[] coords, int vertex) {
+    return Math.hypot(coords[2 * vertex] - CX, coords[2 * vertex + 1] - CY);
+  }
+
+  private static double signedArea(double[] coords) {
+    double area = 0.0;
+    int count = coords.length / 2;
+    for (int i = 0; i < count; i++) {
+      int j = (i + 1) % count;
+      area += coords[2 * i] * coords[2 * j + 1] - coords[2 * j] * coords[2 * i + 1];
+    }
+    return area / 2.0;
+  }
+
+  @Test
+  public void testUnitCircle() {
+    double[] circle = GeometryUtility.unitCircle(8);
+    assertEquals(16, circle.length);
+    assertEquals(1.0, circle[0], 0.0);
+    assertEquals(0.0, circle[1], 0.0);
+    assertEquals(Math.sqrt(0.5), circle[2], 1e-15);
+    assertEquals(Math.sqrt(0.5), circle[3], 1e-15);
+    assertEquals(-1.0, circle[8], 1e-15);
+    assertEquals(0.0, circle[9], 1e-15);
+    // shared per number of segments
+    assertSame(circle, GeometryUtility.unitCircle(8));
+  }
+
+  @Test
+  public void testAxesAlongHeading() {
+    SafetyDomain domain = new SafetyDomain(8, 4.0, 1.6, 0.5);
+    double[] ellipse = generate(domain, 50.0, 10.0, 90.0);
+    // semi-major 50 m * (4 + 0.5 * 10 kn) ahead to the east, semi-minor 50 m * 1.6 to starboard, south
+    assertEquals(CX + 900.0, ellipse[0], 1e-9);
+    assertEquals(CY, ellipse[1], 1e-9);
+    assertEquals(CX, ellipse[4], 1e-9);
+    assertEquals(CY - 160.0, ellipse[5], 1e-9);
+    assertEquals(CX - 900.0, ellipse[8], 1e-9);
+    assertEquals(CY, ellipse[9], 1e-9);
+    assertTrue(signedArea(ellipse) < 0.0);
+  }
+
+  @Test
+  public void testOrientationFollowsHeading() {
+    SafetyDomain domain = new SafetyDomain(36, 4.0, 1.6, 0.0);
+    double[] ellipse = generate(domain, 50.0, Double.NaN, 30.0);
+    double dx = ellipse[0] - CX;
+    double dy = ellipse[1] - CY;
+    assertEquals(400.0, distance(ellipse, 0), 1e-9);
+    assertEquals(30.0, Math.toDegrees(Math.atan2(dx, dy)), 1e-9);
+    // a quarter turn clockwise is the starboard semi-minor axis at 120 degrees
+    assertEquals(160.0, distance(ellipse, 9), 1e-9);
+    assertEquals(120.0, Math.toDegrees(Math.atan2(ellipse[18] - CX, ellipse[19] - CY)), 1e-9);
+    // every vertex lies on the ellipse
+    double sin = Math.sin(Math.toRadians(30.0));
+    double cos = Math.cos(Math.toRadians(30.0));
+    for (int i = 0; i < domain.getVertexCount(); i++) {
+      double x = ellipse[2 * i] - CX;
+      double y = ellipse[2 * i + 1] - CY;
+      double along = x * sin + y * cos;
+      double across = x * cos - y * sin;
+      assertEquals(1.0, along * along / (400.0 * 400.0) + across * across / (160.0 * 160.0), 1e-12);
+    }
+  }
+
+  @Test
+  public void testSpeedSizing() {
+    SafetyDomain domain = new SafetyDomain(8, 4.0, 1.6, 0.5);
+    assertTrue(domain.isSpeedDependent());
+    assertEquals(RATIO * 50.0 * 4.0, distance(generate(domain, 50.0, 0.0, 0.0), 0), 1e-9);
+    assertEquals(RATIO * 50.0 * 9.0, distance(generate(domain, 50.0, 10.0, 0.0), 0), 1e-9);
+    // missing, negative and AIS "not available" speeds count as stopped
+    assertEquals(RATIO * 50.0 * 4.0, distance(generate(domain, 50.0, Double.NaN, 0.0), 0), 1e-9);
+    assertEquals(RATIO * 50.0 * 4.0, distance(generate(domain, 50.0, -1.0, 0.0), 0), 1e-9);
+    assertEquals(RATIO * 50.0 * 4.0, distance(generate(domain, 50.0, SafetyDomain.SPEED_UNAVAILABLE, 0.0), 0), 1e-9);
+    // the semi-minor axis does not depend on the speed
+    assertEquals(RATIO * 50.0 * 1.6, distance(generate(domain, 50.0, 10.0, 0.0), 2), 1e-9);
+    assertFalse(new SafetyDomain(8, 4.0, 1.6, 0.0).isSpeedDependent());
+  }
+
+  @Test
+  public void testRejectsInvalidParameters() {
+    assertInvalid(3, 4.0, 1.6, 0.0);
+    assertInvalid(8, 0.0, 1.6, 0.0);
+    assertInvalid(8, 4.0, -1.0, 0.0);
+    assertInvalid(8, 4.0, 1.6, -0.5);
+  }
+
+  private static void assertInvalid(int segments, double majorFactor, double minorFactor, double speedFactor) {
+    try {
+      new SafetyDomain(segments, majorFactor, minorFactor, speedFactor);
+      fail("Expected invalid safety domain");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.esri.ges.core.geoevent.GeoEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+public class TrackLanesTest {
+
+  private static GeoEvent[] events(int count) {
+    GeoEvent[] events = new GeoEvent[count];
+    for (int i = 0; i < count; i++) {
+      events[i] = EasyMock.createNiceMock(GeoEvent.class);
+    }
+    return events;
+  }
+
+  @Test
+  public void testTrackOrderIsKept() throws Exception {
+    final int tracks = 16;
+    final GeoEvent[] events = events(tracks * 50);
+    final Map<GeoEvent, Integer> index = new HashMap<>();
+    for (int i = 0; i < events.length; i++) {
+      index.put(events[i], i);
+    }
+    final List<List<Integer>> handled = new ArrayList<>();
+    for (int t = 0; t < tracks; t++) {
+      handled.add(new ArrayList<Integer>());
+    }
+    TrackLanes lanes = new TrackLanes("test", 4, 8, new TrackLanes.Handler() {
+      @Override
+      public void handle(GeoEvent ge) {
+        int i = index.get(ge);
+        List<Integer> track = handled.get(i % tracks);
+        synchronized (track) {
+          track.add(i);
+        }
+      }
+    });
+    for (int i = 0; i < events.length; i++) {
+      assertTrue(lanes.submit("track" + (i % tracks), events[i]));
+    }
+    assertEquals(0, lanes.shutdown(5000));
+    for (int t = 0; t < tracks; t++) {
+      List<Integer> track = handled.get(t);
+      assertEquals(50, track.size());
+      for (int k = 1; k < track.size(); k++) {
+        assertTrue(track.get(k - 1) < track.get(k));
+      }
+    }
+  }
+
+  @Test
+  public void testShutdownReleasesBlockedSubmitter() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger handledCount = new AtomicInteger();
+    final TrackLanes lanes = new TrackLanes("test", 1, 1, new TrackLanes.Handler() {
+      @Override
+      public void handle(GeoEvent ge) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        handledCount.incrementAndGet();
+      }
+    });
+    final GeoEvent[] events = events(3);
+    // first event is being handled, second fills the queue
+    assertTrue(lanes.submit("a", events[0]));
+    assertTrue(lanes.submit("a", events[1]));
+
+    final AtomicInteger accepted = new AtomicInteger(2);
+    final CountDownLatch returned = new CountDownLatch(1);
+    Thread submitter = new Thread() {
+      @Override
+      public void run() {
+        try {
+          if (lanes.submit("a", events[2])) {
+            accepted.incrementAndGet();
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        returned.countDown();
+      }
+    };
+    submitter.start();
+    Thread.sleep(200);
+    assertFalse(returned.await(0, TimeUnit.MILLISECONDS));
+
+    Thread drain = new Thread() {
+      @Override
+      public void run() {
+        lanes.shutdown(5000);
+      }
+    };
+    drain.start();
+    // the blocked submitter gives up instead of waiting forever
+    assertTrue(returned.await(5, TimeUnit.SECONDS));
+    release.countDown();
+    drain.join(5000);
+    // every accepted event was handled, none is left behind
+    assertEquals(accepted.get(), handledCount.get());
+    assertFalse(lanes.submit("a", events[2]));
+  }
+}
@@ -0,0 +1,78 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import com.esri.ges.core.geoevent.FieldDefinition;
+import com.esri.ges.core.geoevent.GeoEventDefinition;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class VesselShapeGeneratorProcessorDefinitionTest {
+
+  /**
+   * Reads the rows of the input definition table of the README.
+   */
+  private static List<String[]> readmeRows() throws IOException {
+    List<String[]> rows = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(new File("README.md")), "UTF-8"));) {
+      boolean table = false;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith("| Field Name |")) {
+          table = true;
+        } else if (table && !line.startsWith("|")) {
+          break;
+        } else if (table && !line.startsWith("|---")) {
+          String[] cells = line.split("\\|");
+          rows.add(new String[] {cells[1].trim(), cells[2].trim(), cells[3].trim()});
+        }
+      }
+    }
+    return rows;
+  }
+
+  @Test
+  public void testReadmeMatchesVesselFeed() throws Exception {
+    GeoEventDefinition definition = new VesselShapeGeneratorProcessorDefinition().getGeoEventDefinitions().get("VesselFeed");
+    assertNotNull(definition);
+    List<FieldDefinition> fields = definition.getFieldDefinitions();
+    List<String[]> rows = readmeRows();
+    assertEquals(fields.size(), rows.size());
+    for (int i = 0; i < fields.size(); i++) {
+      FieldDefinition field = fields.get(i);
+      assertEquals(field.getName(), rows.get(i)[0]);
+      assertEquals(field.getType().toString(), rows.get(i)[1]);
+      assertEquals(field.getTags().get(0), rows.get(i)[2]);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.reset;
+import static org.easymock.EasyMock.verify;
+
+import com.esri.geoevent.processor.vesselshapegenerator.provider.Provider;
+import com.esri.geoevent.processor.vesselshapegenerator.provider.ProviderListener;
+import com.esri.geoevent.processor.vesselshapegenerator.provider.ProviderSnapshot;
+import java.util.Collections;
+import org.junit.Test;
+
+public class VesselShapeGeneratorProcessorServiceTest {
+
+  private static Provider provider() {
+    Provider provider = createMock(Provider.class);
+    expect(provider.getSnapshot()).andStubReturn(ProviderSnapshot.EMPTY);
+    provider.addListener(anyObject(ProviderListener.class));
+    replay(provider);
+    return provider;
+  }
+
+  private static void expectDetached(Provider provider) {
+    reset(provider);
+    expect(provider.getSnapshot()).andStubReturn(ProviderSnapshot.EMPTY);
+    provider.removeListener(anyObject(ProviderListener.class));
+    expectLastCall().once();
+    replay(provider);
+  }
+
+  @Test
+  public void testReplacedCatalogIsDestroyed() throws Exception {
+    VesselShapeGeneratorProcessorService service = new VesselShapeGeneratorProcessorService();
+    Provider first = provider();
+    service.setShapeProviders(Collections.singletonList(first));
+    verify(first);
+
+    expectDetached(first);
+    Provider second = provider();
+    service.setShapeProviders(Collections.singletonList(second));
+    verify(first, second);
+
+    expectDetached(second);
+    service.destroy();
+    verify(second);
+    // destroying again is harmless
+    service.destroy();
+  }
+}
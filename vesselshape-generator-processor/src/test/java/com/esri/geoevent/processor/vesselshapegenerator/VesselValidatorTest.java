@@ -0,0 +1,111 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.esri.geoevent.processor.vesselshapegenerator.metrics.RejectReason;
+import com.esri.geoevent.processor.vesselshapegenerator.track.StaticDataStore;
+import org.junit.Test;
+
+public class VesselValidatorTest {
+
+  private final VesselValidator validator = new VesselValidator(511, 500.0, 80.0, true);
+
+  private static StaticDataStore.Values vessel(double bow, double stern, double port, double starboard) {
+    StaticDataStore.Values vessel = new StaticDataStore.Values();
+    vessel.bow = bow;
+    vessel.stern = stern;
+    vessel.port = port;
+    vessel.starboard = starboard;
+    return vessel;
+  }
+
+  @Test
+  public void testPlausibleDimensionsAreKept() {
+    StaticDataStore.Values vessel = vessel(100, 50, 10, 12);
+    assertNull(validator.clearInvalidDimensions(vessel));
+    assertTrue(vessel.hasDimensions());
+  }
+
+  @Test
+  public void testMissingDimensionsAreLeftForStaticData() {
+    StaticDataStore.Values vessel = vessel(Double.NaN, 50, 10, 12);
+    assertNull(validator.clearInvalidDimensions(vessel));
+    // the stern of the pair is kept; the bow may be completed from static data
+    assertEquals(50, vessel.stern, 0.0);
+    assertEquals(10, vessel.port, 0.0);
+  }
+
+  @Test
+  public void testInvalidPairsAreCleared() {
+    StaticDataStore.Values vessel = vessel(-1, 50, 10, 12);
+    assertEquals(RejectReason.INVALID_DIMENSIONS, validator.clearInvalidDimensions(vessel));
+    assertTrue(Double.isNaN(vessel.bow));
+    assertTrue(Double.isNaN(vessel.stern));
+    assertEquals(10, vessel.port, 0.0);
+    assertEquals(12, vessel.starboard, 0.0);
+
+    // AIS 511 "not available" bow is beyond the maximum length
+    vessel = vessel(511, 50, 10, 12);
+    assertEquals(RejectReason.INVALID_DIMENSIONS, validator.clearInvalidDimensions(vessel));
+    assertTrue(Double.isNaN(vessel.bow));
+
+    vessel = vessel(100, 50, 0, 0);
+    assertEquals(RejectReason.ZERO_DIMENSIONS, validator.clearInvalidDimensions(vessel));
+    assertEquals(100, vessel.bow, 0.0);
+    assertTrue(Double.isNaN(vessel.port));
+    assertTrue(Double.isNaN(vessel.starboard));
+
+    // the length reason is reported first
+    vessel = vessel(0, 0, 60, 30);
+    assertEquals(RejectReason.ZERO_DIMENSIONS, validator.clearInvalidDimensions(vessel));
+    assertTrue(Double.isNaN(vessel.port));
+  }
+
+  @Test
+  public void testHeadingIsNormalized() {
+    assertEquals(0, validator.resolveHeading(0, Double.NaN), 0.0);
+    assertEquals(359.5, validator.resolveHeading(359.5, Double.NaN), 0.0);
+    assertEquals(0, validator.resolveHeading(360, Double.NaN), 0.0);
+    assertEquals(90, validator.resolveHeading(450, Double.NaN), 0.0);
+    assertEquals(270, validator.resolveHeading(-90, Double.NaN), 0.0);
+    assertEquals(270, validator.resolveHeading(-450, Double.NaN), 0.0);
+  }
+
+  @Test
+  public void testHeadingFallsBackToCourse() {
+    assertEquals(45, validator.resolveHeading(511, 45), 0.0);
+    assertEquals(45, validator.resolveHeading(Double.NaN, 45), 0.0);
+    assertEquals(45, validator.resolveHeading(Double.POSITIVE_INFINITY, 45), 0.0);
+    // AIS course "not available"
+    assertTrue(Double.isNaN(validator.resolveHeading(511, 360)));
+    assertTrue(Double.isNaN(validator.resolveHeading(511, Double.NaN)));
+    VesselValidator noFallback = new VesselValidator(511, 500.0, 80.0, false);
+    assertTrue(Double.isNaN(noFallback.resolveHeading(511, 45)));
+    assertEquals(10, noFallback.resolveHeading(10, 45), 0.0);
+  }
+}
@@ -0,0 +1,73 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.esri.core.geometry.GeometryEngine;
+import com.esri.core.geometry.LinearUnit;
+import com.esri.core.geometry.Polyline;
+import com.esri.core.geometry.SpatialReference;
+import org.junit.Test;
+
+public class WebMercatorScaleTest {
+
+  // ship lengths in meters
+  private static final double[] LENGTHS = {5.0, 50.0, 200.0, 500.0};
+
+  /**
+   * Ratio as calculated before the closed form: ship length over the
+   * geodesic length of a line of ship length map units.
+   */
+  private static double geodesicRatio(double y, double shipLength) {
+    Polyline centerline = new Polyline();
+    centerline.startPath(0.0, y);
+    centerline.lineTo(shipLength, y);
+    double length = GeometryEngine.geodesicLength(centerline, SpatialReference.create(102100), (LinearUnit) LinearUnit.create(LinearUnit.Code.METER));
+    return shipLength / length;
+  }
+
+  private static double mercatorY(double latitude) {
+    return WebMercatorScale.RADIUS * Math.log(Math.tan(Math.PI / 4.0 + Math.toRadians(latitude) / 2.0));
+  }
+
+  @Test
+  public void testRatioMatchesGeodesicLength() {
+    for (double latitude = -85.0; latitude <= 85.0; latitude += 0.5) {
+      double y = mercatorY(latitude);
+      for (double shipLength : LENGTHS) {
+        double expected = geodesicRatio(y, shipLength);
+        double error = Math.abs(WebMercatorScale.ratio(y) - expected) / expected;
+        assertTrue(String.format("latitude %s, length %s: relative error %s", latitude, shipLength, error), error <= WebMercatorScale.RELATIVE_ERROR);
+      }
+    }
+  }
+
+  @Test
+  public void testRatioIsSymmetricAndClamped() {
+    assertEquals(WebMercatorScale.ratio(1e6), WebMercatorScale.ratio(-1e6), 1e-12);
+    assertEquals(WebMercatorScale.ratio(WebMercatorScale.MAX_EXTENT), WebMercatorScale.ratio(2 * WebMercatorScale.MAX_EXTENT), 0.0);
+  }
+}
@@ -0,0 +1,114 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import org.junit.Test;
+
+public class BinaryCatalogTest {
+
+  private static Map<String, ShapeTemplate> defaultCatalog() throws IOException {
+    try (InputStream in = BinaryCatalogTest.class.getResourceAsStream("/model/default.json");) {
+      return new Parser().parse(in);
+    }
+  }
+
+  private static byte[] write(Map<String, ShapeTemplate> shapes) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryCatalog.write(shapes, out);
+    return out.toByteArray();
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    Map<String, ShapeTemplate> shapes = defaultCatalog();
+    Map<String, ShapeTemplate> read = BinaryCatalog.read(ByteBuffer.wrap(write(shapes)));
+    assertEquals(shapes.keySet(), read.keySet());
+    for (Map.Entry<String, ShapeTemplate> e : shapes.entrySet()) {
+      ShapeTemplate expected = e.getValue();
+      ShapeTemplate actual = read.get(e.getKey());
+      assertEquals(e.getKey(), actual.getType());
+      assertEquals(expected.getVertexCount(), actual.getVertexCount());
+      for (int i = 0; i < expected.getVertexCount(); i++) {
+        assertEquals(expected.getX(i), actual.getX(i), 0.0);
+        assertEquals(expected.getY(i), actual.getY(i), 0.0);
+      }
+    }
+  }
+
+  @Test
+  public void testReadsMappedFile() throws IOException {
+    Map<String, ShapeTemplate> shapes = defaultCatalog();
+    File file = File.createTempFile("shapes", BinaryCatalog.EXTENSION);
+    try {
+      try (OutputStream out = new FileOutputStream(file);) {
+        BinaryCatalog.write(shapes, out);
+      }
+      Map<String, ShapeTemplate> read;
+      try (RandomAccessFile content = new RandomAccessFile(file, "r");) {
+        FileChannel channel = content.getChannel();
+        read = BinaryCatalog.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+      }
+      // rings are read from the mapping after the file is closed
+      ShapeTemplate expected = shapes.get("0");
+      ShapeTemplate actual = read.get("0");
+      assertEquals(expected.getVertexCount(), actual.getVertexCount());
+      for (int i = 0; i < expected.getVertexCount(); i++) {
+        assertEquals(expected.getX(i), actual.getX(i), 0.0);
+        assertEquals(expected.getY(i), actual.getY(i), 0.0);
+      }
+      assertEquals(expected.getArea(100, 20), actual.getArea(100, 20), 1e-9);
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testRejectsInvalidContent() throws IOException {
+    assertInvalid(ByteBuffer.wrap("{\"type\": \"0\"}".getBytes("UTF-8")));
+    byte[] truncated = write(defaultCatalog());
+    assertInvalid(ByteBuffer.wrap(truncated, 0, truncated.length - 8).slice());
+  }
+
+  private static void assertInvalid(ByteBuffer buffer) {
+    try {
+      BinaryCatalog.read(buffer);
+      fail("Expected invalid catalog");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+}
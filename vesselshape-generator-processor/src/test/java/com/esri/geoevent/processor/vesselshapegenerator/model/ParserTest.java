@@ -0,0 +1,88 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import org.junit.Test;
+
+public class ParserTest {
+
+  private static Map<String, ShapeTemplate> parse(String json) throws IOException {
+    return new Parser().parse(new ByteArrayInputStream(json.getBytes("UTF-8")));
+  }
+
+  private static void assertRejected(String json, String message) throws IOException {
+    try {
+      parse(json);
+      fail("Expected " + message);
+    } catch (JsonParseException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains(message));
+    }
+  }
+
+  @Test
+  public void testParseDefaultCatalog() throws IOException {
+    try (InputStream in = getClass().getResourceAsStream("/model/default.json");) {
+      Map<String, ShapeTemplate> shapes = new Parser().parse(in);
+      ShapeTemplate shape = shapes.get("0");
+      assertEquals(22, shape.getVertexCount());
+      // ring starts and ends at the bow origin
+      assertEquals(0.0, shape.getX(0), 0.0);
+      assertEquals(0.0, shape.getX(shape.getVertexCount() - 1), 0.0);
+    }
+  }
+
+  @Test
+  public void testParseShape() throws IOException {
+    Map<String, ShapeTemplate> shapes = parse("[{\"type\": \"30\", \"color\": \"red\","
+        + " \"starboardSide\": [{\"x\": 0.1, \"y\": 0.5}, {\"x\": 1, \"y\": 0.5}],"
+        + " \"portSide\": [{\"x\": 1, \"y\": 0.5}, {\"x\": 0.1, \"y\": 0.5}]}]");
+    ShapeTemplate shape = shapes.get("30");
+    assertEquals(6, shape.getVertexCount());
+    assertEquals(1.0, shape.getX(3), 0.0);
+    assertEquals(-0.5, shape.getY(3), 0.0);
+  }
+
+  @Test
+  public void testRejectsInvalidShapes() throws IOException {
+    assertRejected("[{\"starboardSide\": [{\"x\": 0.5, \"y\": 0.5}], \"portSide\": [{\"x\": 0.5, \"y\": 0.5}]}]", "requires a type");
+    assertRejected("[{\"type\": \"30\", \"starboardSide\": [{\"x\": 0.5, \"y\": 0.5}]}]", "requires starboard and port sides");
+    assertRejected("[{\"type\": \"30\", \"starboardSide\": [{\"x\": 1.5, \"y\": 0.5}], \"portSide\": [{\"x\": 0.5, \"y\": 0.5}]}]", "out of range");
+    assertRejected("[{\"type\": \"30\", \"starboardSide\": [{\"x\": 0.5}], \"portSide\": [{\"x\": 0.5, \"y\": 0.5}]}]", "both x and y");
+  }
+
+  @Test
+  public void testRejectsSidesRunningFromSternToBow() throws IOException {
+    assertRejected("[{\"type\": \"30\", \"starboardSide\": [{\"x\": 1, \"y\": 0.5}, {\"x\": 0.1, \"y\": 0.5}],"
+        + " \"portSide\": [{\"x\": 0.1, \"y\": 0.5}, {\"x\": 1, \"y\": 0.5}]}]", "starboard side must run from bow to stern");
+  }
+}
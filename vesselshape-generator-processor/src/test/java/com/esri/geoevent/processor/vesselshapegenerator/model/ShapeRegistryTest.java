@@ -0,0 +1,119 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.model;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class ShapeRegistryTest {
+
+  private static ShapeTemplate template(String type) {
+    return ShapeTemplate.create(type, new double[] {0.5, 0.5}, 1, new double[] {0.5, 0.5}, 1);
+  }
+
+  @Test
+  public void testRangeAppliesToAllCodes() {
+    ShapeTemplate defaultShape = template("0");
+    ShapeTemplate cargo = template("70-79");
+    Map<String, ShapeTemplate> catalog = new HashMap<>();
+    catalog.put("0", defaultShape);
+    catalog.put("70-79", cargo);
+    ShapeRegistry registry = ShapeRegistry.build(Collections.singletonList(catalog), 1);
+
+    for (int code = 70; code <= 79; code++) {
+      assertSame(cargo, registry.get(code));
+      assertSame(cargo, registry.get(Integer.toString(code)));
+      assertTrue(registry.isDefined(code));
+    }
+    assertSame(defaultShape, registry.get(69));
+    assertSame(defaultShape, registry.get(80));
+    assertFalse(registry.isDefined(80));
+  }
+
+  @Test
+  public void testExactTypeWinsOverRange() {
+    ShapeTemplate cargo = template("70-79");
+    ShapeTemplate hazardous = template("71");
+    Map<String, ShapeTemplate> catalog = new HashMap<>();
+    catalog.put("0", template("0"));
+    catalog.put("70-79", cargo);
+    catalog.put("71", hazardous);
+    ShapeRegistry registry = ShapeRegistry.build(Collections.singletonList(catalog), 1);
+
+    assertSame(cargo, registry.get(70));
+    assertSame(hazardous, registry.get(71));
+    assertSame(cargo, registry.get(72));
+  }
+
+  @Test
+  public void testHigherPriorityCatalogWins() {
+    ShapeTemplate bundled = template("70-79");
+    ShapeTemplate custom = template("72");
+    Map<String, ShapeTemplate> low = new HashMap<>();
+    low.put("0", template("0"));
+    low.put("70-79", bundled);
+    Map<String, ShapeTemplate> high = new HashMap<>();
+    high.put("72", custom);
+    ShapeRegistry registry = ShapeRegistry.build(Arrays.asList(high, low), 2);
+
+    assertSame(custom, registry.get(72));
+    assertSame(bundled, registry.get(73));
+    assertSame(low.get("0"), registry.getDefault());
+  }
+
+  @Test
+  public void testNamedAndUnknownTypes() {
+    ShapeTemplate defaultShape = template("0");
+    ShapeTemplate tug = template("Tug");
+    ShapeTemplate large = template("1001");
+    Map<String, ShapeTemplate> catalog = new HashMap<>();
+    catalog.put("0", defaultShape);
+    catalog.put("Tug", tug);
+    catalog.put("1001", large);
+    ShapeRegistry registry = ShapeRegistry.build(Collections.singletonList(catalog), 1);
+
+    assertSame(tug, registry.get((Object) "Tug"));
+    assertTrue(registry.isDefined("Tug"));
+    assertSame(large, registry.get(1001));
+    assertSame(large, registry.get((Object) 1001L));
+    assertSame(defaultShape, registry.get((Object) "Ferry"));
+    assertFalse(registry.isDefined("Ferry"));
+    assertSame(defaultShape, registry.get((Object) null));
+    assertFalse(registry.isDefined(null));
+  }
+
+  @Test
+  public void testEmptyRegistryHasNoDefault() {
+    assertNull(ShapeRegistry.EMPTY.get(30));
+    assertNull(ShapeRegistry.EMPTY.get((Object) "Tug"));
+  }
+}
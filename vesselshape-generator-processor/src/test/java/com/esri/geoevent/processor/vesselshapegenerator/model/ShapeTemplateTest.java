@@ -0,0 +1,141 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+public class ShapeTemplateTest {
+
+  private static Factor factor(double x, double y) {
+    Factor f = new Factor();
+    f.x = x;
+    f.y = y;
+    return f;
+  }
+
+  private static Shape shape() {
+    Shape shape = new Shape();
+    shape.type = "30";
+    shape.starboardSide = Arrays.asList(factor(0.1, 0.5), factor(1.0, 0.5));
+    shape.portSide = Arrays.asList(factor(1.0, 0.5), factor(0.1, 0.5));
+    return shape;
+  }
+
+  @Test
+  public void testCompileRingOrder() {
+    ShapeTemplate template = ShapeTemplate.compile(shape());
+    assertEquals("30", template.getType());
+    assertEquals(6, template.getVertexCount());
+    // bow origin, starboard side from bow to stern, port side mirrored back, closing origin
+    double[] expected = {0.0, 0.0, 0.1, 0.5, 1.0, 0.5, 1.0, -0.5, 0.1, -0.5, 0.0, 0.0};
+    for (int i = 0; i < template.getVertexCount(); i++) {
+      assertEquals(expected[2 * i], template.getX(i), 0.0);
+      assertEquals(expected[2 * i + 1], template.getY(i), 0.0);
+    }
+  }
+
+  @Test
+  public void testCreateMatchesCompile() {
+    ShapeTemplate compiled = ShapeTemplate.compile(shape());
+    ShapeTemplate created = ShapeTemplate.create("30", new double[] {0.1, 0.5, 1.0, 0.5}, 2, new double[] {1.0, 0.5, 0.1, 0.5}, 2);
+    assertEquals(compiled.getVertexCount(), created.getVertexCount());
+    for (int i = 0; i < compiled.getVertexCount(); i++) {
+      assertEquals(compiled.getX(i), created.getX(i), 0.0);
+      assertEquals(compiled.getY(i), created.getY(i), 0.0);
+    }
+  }
+
+  @Test
+  public void testCompileWithoutSides() {
+    Shape shape = new Shape();
+    shape.type = "0";
+    ShapeTemplate template = ShapeTemplate.compile(shape);
+    assertEquals(2, template.getVertexCount());
+  }
+
+  private static double exactPerimeter(ShapeTemplate template, double length, double width) {
+    double perimeter = 0.0;
+    for (int i = 0; i < template.getVertexCount(); i++) {
+      int j = i + 1 < template.getVertexCount() ? i + 1 : 0;
+      double dx = (template.getX(j) - template.getX(i)) * length;
+      double dy = (template.getY(j) - template.getY(i)) * width;
+      perimeter += Math.sqrt(dx * dx + dy * dy);
+    }
+    return perimeter;
+  }
+
+  @Test
+  public void testRectangleMeasures() {
+    ShapeTemplate template = ShapeTemplate.create("rect", new double[] {0.0, 0.5, 1.0, 0.5}, 2, new double[] {1.0, 0.5, 0.0, 0.5}, 2);
+    assertEquals(1000.0, template.getArea(100.0, 10.0), 1e-9);
+    assertEquals(220.0, template.getPerimeter(100.0, 10.0), 1e-9);
+    ShapeTemplate centroid = template.getCentroid();
+    assertEquals(1, centroid.getVertexCount());
+    assertEquals(0.5, centroid.getX(0), 1e-12);
+    assertEquals(0.0, centroid.getY(0), 1e-12);
+  }
+
+  @Test
+  public void testDegeneratePerimeter() {
+    ShapeTemplate template = ShapeTemplate.compile(shape());
+    assertEquals(0.0, template.getPerimeter(0.0, 0.0), 0.0);
+    assertEquals(exactPerimeter(template, 100.0, 0.0), template.getPerimeter(100.0, 0.0), 1e-9);
+    assertEquals(exactPerimeter(template, 0.0, 20.0), template.getPerimeter(0.0, 20.0), 1e-9);
+    assertTrue(Double.isNaN(template.getPerimeter(Double.NaN, 20.0)));
+  }
+
+  @Test
+  public void testPerimeterBound() {
+    Random random = new Random(25);
+    for (int n = 0; n < 200; n++) {
+      int count = 1 + random.nextInt(12);
+      double[] starboard = new double[2 * count];
+      double x = 0.0;
+      for (int i = 0; i < count; i++) {
+        // mix steep, shallow and axis aligned edges
+        x = Math.min(1.0, x + random.nextDouble() * (random.nextBoolean() ? 0.3 : 0.01));
+        starboard[2 * i] = random.nextInt(4) == 0 && i > 0 ? starboard[2 * i - 2] : x;
+        starboard[2 * i + 1] = random.nextDouble() * 0.5;
+      }
+      double[] port = new double[2 * count];
+      for (int i = 0; i < count; i++) {
+        port[2 * i] = starboard[2 * (count - 1 - i)];
+        port[2 * i + 1] = random.nextDouble() * 0.5;
+      }
+      ShapeTemplate template = ShapeTemplate.create("r", starboard, count, port, count);
+      for (int k = 0; k <= 100; k++) {
+        double width = k + random.nextDouble();
+        double length = 101.0 - width;
+        double exact = exactPerimeter(template, length, width);
+        double error = Math.abs(template.getPerimeter(length, width) - exact) / exact;
+        assertTrue(error + " at shape " + n, error <= ShapeTemplate.PERIMETER_RELATIVE_ERROR);
+      }
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.esri.geoevent.processor.vesselshapegenerator.model.BinaryCatalog;
+import com.esri.geoevent.processor.vesselshapegenerator.model.ShapeTemplate;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FolderProviderTest {
+
+  private File folder;
+  private FolderProvider provider;
+
+  @Before
+  public void setUp() throws IOException {
+    folder = File.createTempFile("shapes", "");
+    folder.delete();
+    folder.mkdirs();
+  }
+
+  @After
+  public void tearDown() {
+    if (provider != null) {
+      provider.destroy();
+    }
+    File[] files = folder.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    folder.delete();
+  }
+
+  private static void writeCatalog(File file, double width) throws IOException {
+    ShapeTemplate template = ShapeTemplate.create("30", new double[] {0.5, width}, 1, new double[] {0.5, width}, 1);
+    try (OutputStream out = new FileOutputStream(file);) {
+      BinaryCatalog.write(Collections.singletonMap("30", template), out);
+    }
+  }
+
+  @Test
+  public void testBinaryCatalogReplaced() throws Exception {
+    File file = new File(folder, "custom" + BinaryCatalog.EXTENSION);
+    writeCatalog(file, 0.25);
+    provider = new FolderProvider(folder.getPath());
+    provider.setDebounceDelay(50);
+    final CountDownLatch changed = new CountDownLatch(1);
+    provider.addListener(new ProviderListener() {
+      @Override
+      public void shapesChanged(Provider source) {
+        changed.countDown();
+      }
+    });
+    provider.init();
+    ShapeTemplate mapped = provider.getSnapshot().getShapes().get("30");
+    assertEquals(0.25, mapped.getY(1), 0.0);
+
+    // the file is mapped, so it is replaced by moving a new file into place
+    File replacement = new File(folder, "custom.tmp");
+    writeCatalog(replacement, 0.5);
+    Files.move(replacement.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    assertTrue(changed.await(30, TimeUnit.SECONDS));
+    assertEquals(0.5, provider.getSnapshot().getShapes().get("30").getY(1), 0.0);
+    // shapes in use keep reading the replaced file
+    assertEquals(0.25, mapped.getY(1), 0.0);
+  }
+
+  private static boolean isObserverRunning() {
+    for (Thread thread : Thread.getAllStackTraces().keySet()) {
+      if (thread.getName().equals("Folder observer") && thread.isAlive()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Test
+  public void testDestroyStopsObserver() throws Exception {
+    provider = new FolderProvider(folder.getPath());
+    provider.init();
+    assertTrue(isObserverRunning());
+    provider.destroy();
+    assertFalse(isObserverRunning());
+    // destroying again is harmless
+    provider.destroy();
+    provider = null;
+  }
+}
@@ -0,0 +1,93 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.track;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.esri.geoevent.processor.vesselshapegenerator.model.GeneratedShape;
+import org.junit.Test;
+
+public class DuplicateFilterTest {
+
+  private static GeneratedShape shape() {
+    return new GeneratedShape(null, null, Double.NaN, Double.NaN, null);
+  }
+
+  @Test
+  public void testFingerprint() {
+    long fingerprint = DuplicateFilter.fingerprint(366123456L, 1000, 10.5, 55.25);
+    assertEquals(fingerprint, DuplicateFilter.fingerprint(366123456L, 1000, 10.5, 55.25));
+    assertTrue(fingerprint != DuplicateFilter.fingerprint(366123457L, 1000, 10.5, 55.25));
+    assertTrue(fingerprint != DuplicateFilter.fingerprint(366123456L, 1001, 10.5, 55.25));
+    assertTrue(fingerprint != DuplicateFilter.fingerprint(366123456L, 1000, 10.5, 55.26));
+    assertTrue(fingerprint != DuplicateFilter.fingerprint(366123456L, 1000, 55.25, 10.5));
+  }
+
+  @Test
+  public void testDetectsDuplicateWithinWindow() {
+    DuplicateFilter filter = new DuplicateFilter(1024, 1000);
+    int slot = filter.record(42, 0);
+    assertTrue(slot >= 0);
+    assertEquals(~slot, filter.record(42, 1000));
+    // outside the window the report is new again
+    assertTrue(filter.record(42, 2001) >= 0);
+  }
+
+  @Test
+  public void testKeepsShapeOfFirstCopy() {
+    DuplicateFilter filter = new DuplicateFilter(1024, 1000);
+    int slot = filter.record(42, 0);
+    int duplicate = ~filter.record(42, 10);
+    assertNull(filter.getShape(duplicate, 42));
+    GeneratedShape shape = shape();
+    filter.setShape(slot, 42, shape);
+    assertSame(shape, filter.getShape(duplicate, 42));
+    // another fingerprint does not see the shape
+    assertNull(filter.getShape(duplicate, 43));
+  }
+
+  @Test
+  public void testFullSetReplacesOldest() {
+    // a single set of four ways
+    DuplicateFilter filter = new DuplicateFilter(4, 1000);
+    int[] slots = new int[4];
+    for (int i = 0; i < 4; i++) {
+      slots[i] = filter.record(i + 1, i);
+    }
+    filter.setShape(slots[0], 1, shape());
+    int slot = filter.record(5, 10);
+    assertEquals(slots[0], slot);
+    // the replaced fingerprint loses its shape and is forgotten
+    assertNull(filter.getShape(slot, 1));
+    assertTrue(filter.record(1, 11) >= 0);
+    // the survivors are still duplicates except the one replaced next
+    assertTrue(filter.record(3, 12) < 0);
+    assertTrue(filter.record(4, 12) < 0);
+    assertTrue(filter.record(5, 12) < 0);
+    assertTrue(filter.record(2, 12) >= 0);
+  }
+}
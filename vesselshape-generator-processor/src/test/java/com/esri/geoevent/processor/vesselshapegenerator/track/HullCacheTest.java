@@ -0,0 +1,108 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.track;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.esri.geoevent.processor.vesselshapegenerator.model.GeneratedShape;
+import org.junit.Test;
+
+public class HullCacheTest {
+
+  private static final long VERSION = 3;
+  // Web Mercator units per meter at about 60 degrees latitude
+  private static final double RATIO = 2.0;
+
+  private static StaticDataStore.Values vessel(double bow, Object type) {
+    StaticDataStore.Values vessel = new StaticDataStore.Values();
+    vessel.bow = bow;
+    vessel.stern = 20;
+    vessel.port = 5;
+    vessel.starboard = 5;
+    vessel.type = type;
+    return vessel;
+  }
+
+  private static GeneratedShape shape() {
+    return new GeneratedShape(null, null, Double.NaN, Double.NaN, null);
+  }
+
+  /**
+   * Creates cache with 10 m and 2 degree tolerances holding one hull of
+   * track 1 at (1000, 2000) heading 359 degrees.
+   */
+  private static HullCache cache(GeneratedShape shape) {
+    HullCache cache = new HullCache(100, 10.0, 2.0);
+    cache.store(1, 1000, 2000, 359, vessel(80, 30), VERSION, shape, 0);
+    return cache;
+  }
+
+  @Test
+  public void testHitWithinTolerance() {
+    GeneratedShape shape = shape();
+    HullCache cache = cache(shape);
+    assertSame(shape, cache.find(1, 1000, 2000, RATIO, 359, vessel(80, 30), VERSION, 0));
+    // 9 m away in map units and 2 degrees across north
+    assertSame(shape, cache.find(1, 1000 + 9 * RATIO, 2000, RATIO, 1, vessel(80, 30), VERSION, 0));
+    assertSame(shape, cache.find(1, 1000 + 6 * RATIO, 2000 - 6 * RATIO, RATIO, 358, vessel(80, 30), VERSION, 0));
+  }
+
+  @Test
+  public void testMissOutsideTolerance() {
+    HullCache cache = cache(shape());
+    assertNull(cache.find(1, 1000 + 11 * RATIO, 2000, RATIO, 359, vessel(80, 30), VERSION, 0));
+    // just beyond 10 m at this ratio
+    assertNull(cache.find(1, 1000, 2000 + 10 * RATIO + 0.1, RATIO, 359, vessel(80, 30), VERSION, 0));
+    assertNull(cache.find(1, 1000, 2000, RATIO, 2, vessel(80, 30), VERSION, 0));
+    assertNull(cache.find(1, 1000, 2000, RATIO, 356, vessel(80, 30), VERSION, 0));
+    assertNull(cache.find(2, 1000, 2000, RATIO, 359, vessel(80, 30), VERSION, 0));
+  }
+
+  @Test
+  public void testMissAfterVersionChange() {
+    HullCache cache = cache(shape());
+    assertNull(cache.find(1, 1000, 2000, RATIO, 359, vessel(80, 30), VERSION + 1, 0));
+  }
+
+  @Test
+  public void testMissOnOtherVessel() {
+    HullCache cache = cache(shape());
+    assertNull(cache.find(1, 1000, 2000, RATIO, 359, vessel(81, 30), VERSION, 0));
+    assertNull(cache.find(1, 1000, 2000, RATIO, 359, vessel(80, 31), VERSION, 0));
+    assertNull(cache.find(1, 1000, 2000, RATIO, 359, vessel(80, null), VERSION, 0));
+  }
+
+  @Test
+  public void testMissKeepsCachedInputs() {
+    GeneratedShape shape = shape();
+    HullCache cache = cache(shape);
+    // drift is measured from the stored report, not from the last hit
+    assertSame(shape, cache.find(1, 1000 + 8 * RATIO, 2000, RATIO, 359, vessel(80, 30), VERSION, 0));
+    assertNull(cache.find(1, 1000 + 16 * RATIO, 2000, RATIO, 359, vessel(80, 30), VERSION, 0));
+    GeneratedShape moved = shape();
+    cache.store(1, 1000 + 16 * RATIO, 2000, 359, vessel(80, 30), VERSION, moved, 0);
+    assertSame(moved, cache.find(1, 1000 + 16 * RATIO, 2000, RATIO, 359, vessel(80, 30), VERSION, 0));
+  }
+}
@@ -0,0 +1,81 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.track;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ReportTimesTest {
+
+  @Test
+  public void testStale() {
+    ReportTimes times = new ReportTimes(1000);
+    assertFalse(times.isStale(1, 1000, 0));
+    times.update(1, 1000);
+    assertFalse(times.isStale(1, 1000, 0));
+    assertFalse(times.isStale(1, 2000, 0));
+    assertTrue(times.isStale(1, 999, 0));
+    // tolerance in milliseconds
+    assertFalse(times.isStale(1, 500, 500));
+    assertTrue(times.isStale(1, 499, 500));
+    assertFalse(times.isStale(2, 0, 0));
+  }
+
+  @Test
+  public void testKeepsLatestTime() {
+    ReportTimes times = new ReportTimes(1000);
+    times.update(1, 2000);
+    times.update(1, 1000);
+    assertTrue(times.isStale(1, 1500, 0));
+    times.update(1, 3000);
+    assertTrue(times.isStale(1, 2500, 0));
+    assertEquals(1, times.size());
+  }
+
+  @Test
+  public void testNeverExpires() {
+    ReportTimes times = new ReportTimes(1000);
+    times.update(1, 1000);
+    times.update(2, Long.MAX_VALUE / 2);
+    assertTrue(times.isStale(1, 999, 0));
+    assertEquals(2, times.size());
+  }
+
+  @Test
+  public void testEvictsOldestReportTime() {
+    long[] keys = TrackTableTest.sameSegmentKeys(3, false);
+    // two tracks per segment
+    ReportTimes times = new ReportTimes(64);
+    times.update(keys[0], 2000);
+    times.update(keys[1], 1000);
+    times.update(keys[2], 3000);
+    assertTrue(times.isStale(keys[0], 1999, 0));
+    assertFalse(times.isStale(keys[1], 0, 0));
+    assertTrue(times.isStale(keys[2], 2999, 0));
+    assertEquals(2, times.size());
+  }
+}
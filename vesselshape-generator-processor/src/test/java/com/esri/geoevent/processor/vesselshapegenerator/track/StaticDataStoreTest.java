@@ -0,0 +1,142 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.track;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class StaticDataStoreTest {
+
+  private static StaticDataStore.Values values(double bow, double stern, double port, double starboard, Object type) {
+    StaticDataStore.Values values = new StaticDataStore.Values();
+    values.bow = bow;
+    values.stern = stern;
+    values.port = port;
+    values.starboard = starboard;
+    values.type = type;
+    return values;
+  }
+
+  private static StaticDataStore.Values missing() {
+    return values(Double.NaN, Double.NaN, Double.NaN, Double.NaN, null);
+  }
+
+  @Test
+  public void testKey() {
+    assertEquals(366123456L, StaticDataStore.key(366123456));
+    assertEquals(366123456L, StaticDataStore.key(366123456L));
+    assertEquals(366123456L, StaticDataStore.key("366123456"));
+    assertEquals(-1, StaticDataStore.key(-5));
+    assertEquals(-1, StaticDataStore.key(""));
+    assertEquals(-1, StaticDataStore.key("36612345A"));
+    assertEquals(-1, StaticDataStore.key("1234567890123456789"));
+    assertEquals(-1, StaticDataStore.key(1.5));
+    assertEquals(-1, StaticDataStore.key(null));
+  }
+
+  @Test
+  public void testCompletesMissingValues() {
+    StaticDataStore store = new StaticDataStore(100, 60000);
+    store.update(1, values(100, 20, 8, 7, "Cargo"), 0);
+
+    StaticDataStore.Values values = missing();
+    assertTrue(store.complete(1, values, 1000));
+    assertEquals(100, values.bow, 0);
+    assertEquals(20, values.stern, 0);
+    assertEquals(8, values.port, 0);
+    assertEquals(7, values.starboard, 0);
+    assertEquals("Cargo", values.type);
+
+    // reported values are kept
+    values = values(50, 10, 4, 4, "Tanker");
+    assertFalse(store.complete(1, values, 1000));
+    assertEquals(50, values.bow, 0);
+    assertEquals("Tanker", values.type);
+
+    assertFalse(store.complete(2, missing(), 1000));
+  }
+
+  @Test
+  public void testNaNKeepsStoredValues() {
+    StaticDataStore store = new StaticDataStore(100, 60000);
+    store.update(1, values(100, 20, 8, 7, "Cargo"), 0);
+    store.update(1, values(Double.NaN, 30, Double.NaN, Double.NaN, null), 10);
+
+    StaticDataStore.Values values = missing();
+    assertTrue(store.complete(1, values, 20));
+    assertEquals(100, values.bow, 0);
+    assertEquals(30, values.stern, 0);
+    assertEquals("Cargo", values.type);
+  }
+
+  @Test
+  public void testPartialDimensionsAreNotFilled() {
+    StaticDataStore store = new StaticDataStore(100, 60000);
+    store.update(1, values(100, Double.NaN, 8, 7, "Cargo"), 0);
+
+    StaticDataStore.Values values = missing();
+    assertTrue(store.complete(1, values, 10));
+    assertTrue(Double.isNaN(values.bow));
+    assertEquals("Cargo", values.type);
+  }
+
+  @Test
+  public void testExpiry() {
+    StaticDataStore store = new StaticDataStore(100, 1000);
+    store.update(1, values(100, 20, 8, 7, "Cargo"), 100);
+    assertTrue(store.complete(1, missing(), 1100));
+    assertFalse(store.complete(1, missing(), 1101));
+    assertEquals(0, store.size());
+
+    // an expired entry does not leak into a new one
+    store.update(2, values(100, 20, 8, 7, "Cargo"), 100);
+    store.update(2, values(Double.NaN, Double.NaN, Double.NaN, Double.NaN, "Tanker"), 2100);
+    StaticDataStore.Values values = missing();
+    assertTrue(store.complete(2, values, 2100));
+    assertTrue(Double.isNaN(values.bow));
+    assertEquals("Tanker", values.type);
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUpdated() {
+    long[] keys = TrackTableTest.sameSegmentKeys(3, false);
+    // two tracks per segment
+    StaticDataStore store = new StaticDataStore(64, 60000);
+    store.update(keys[0], values(100, 20, 8, 7, "a"), 1);
+    store.update(keys[1], values(100, 20, 8, 7, "b"), 2);
+    store.update(keys[0], values(Double.NaN, Double.NaN, Double.NaN, Double.NaN, null), 3);
+    store.update(keys[2], values(100, 20, 8, 7, "c"), 4);
+
+    StaticDataStore.Values values = missing();
+    assertFalse(store.complete(keys[1], values, 5));
+    assertNull(values.type);
+    assertTrue(store.complete(keys[0], values, 5));
+    assertEquals("a", values.type);
+    assertEquals(2, store.size());
+  }
+}
@@ -0,0 +1,145 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.track;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class TrackTableTest {
+
+  private static int segment(long key) {
+    return (int) (LongKeyTable.mix(key) >>> 59) & 31;
+  }
+
+  /**
+   * Finds keys sharing the segment of the first key, optionally also its home slot
+   * in a table of the initial size.
+   */
+  static long[] sameSegmentKeys(int count, boolean sameHome) {
+    long[] keys = new long[count];
+    int found = 0;
+    for (long key = 1; found < count; key++) {
+      if (found == 0 || (segment(key) == segment(keys[0])
+          && (!sameHome || ((int) LongKeyTable.mix(key) & 255) == ((int) LongKeyTable.mix(keys[0]) & 255)))) {
+        keys[found++] = key;
+      }
+    }
+    return keys;
+  }
+
+  @Test
+  public void testPutGetRemove() {
+    TrackTable<String> table = new TrackTable<>(1000, 0);
+    table.put(366123456L, "a", 1);
+    table.put(244000001L, "b", 2);
+    assertEquals("a", table.get(366123456L, 3));
+    assertEquals("b", table.get(244000001L, 3));
+    assertNull(table.get(1L, 3));
+    table.put(366123456L, "c", 4);
+    assertEquals("c", table.get(366123456L, 5));
+    assertEquals(2, table.size());
+    table.remove(366123456L);
+    assertNull(table.get(366123456L, 6));
+    assertEquals(1, table.size());
+  }
+
+  @Test
+  public void testBackwardShiftDeleteKeepsCollidingKeys() {
+    long[] keys = sameSegmentKeys(6, true);
+    TrackTable<Long> table = new TrackTable<>(100000, 0);
+    for (long key : keys) {
+      table.put(key, key, 1);
+    }
+    // delete from the middle and the head of the probe sequence
+    table.remove(keys[2]);
+    table.remove(keys[0]);
+    assertNull(table.get(keys[0], 2));
+    assertNull(table.get(keys[2], 2));
+    for (int i : new int[] {1, 3, 4, 5}) {
+      assertEquals(Long.valueOf(keys[i]), table.get(keys[i], 2));
+    }
+    // reinserted keys are found again
+    table.put(keys[0], keys[0], 3);
+    assertEquals(Long.valueOf(keys[0]), table.get(keys[0], 4));
+    assertEquals(5, table.size());
+  }
+
+  @Test
+  public void testGrowsUpToCapacity() {
+    TrackTable<Long> table = new TrackTable<>(32 * 2000, 0);
+    for (long key = 0; key < 20000; key++) {
+      table.put(key, key, 1);
+    }
+    assertEquals(20000, table.size());
+    for (long key = 0; key < 20000; key++) {
+      assertEquals(Long.valueOf(key), table.get(key, 2));
+    }
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsedWithoutTtl() {
+    long[] keys = sameSegmentKeys(3, false);
+    // two tracks per segment
+    TrackTable<String> table = new TrackTable<>(64, 0);
+    table.put(keys[0], "a", 1);
+    table.put(keys[1], "b", 2);
+    assertEquals("a", table.get(keys[0], 3));
+    table.put(keys[2], "c", 4);
+    assertEquals("a", table.get(keys[0], 5));
+    assertNull(table.get(keys[1], 5));
+    assertEquals("c", table.get(keys[2], 5));
+    assertEquals(2, table.size());
+  }
+
+  @Test
+  public void testExpiredEntriesAreEvictedFirst() {
+    long[] keys = sameSegmentKeys(4, false);
+    TrackTable<String> table = new TrackTable<>(64, 10);
+    table.put(keys[0], "a", 1);
+    table.put(keys[1], "b", 20);
+    // a expired at 11; the full segment drops it rather than b
+    table.put(keys[2], "c", 25);
+    assertNull(table.get(keys[0], 26));
+    assertEquals("b", table.get(keys[1], 26));
+    assertEquals("c", table.get(keys[2], 27));
+    // nothing expired: the least recently used entry is evicted
+    table.put(keys[3], "d", 28);
+    assertNull(table.get(keys[1], 29));
+    assertEquals("c", table.get(keys[2], 29));
+    assertEquals("d", table.get(keys[3], 29));
+  }
+
+  @Test
+  public void testExpiresOnRead() {
+    TrackTable<String> table = new TrackTable<>(100, 10);
+    table.put(7L, "a", 100);
+    assertEquals("a", table.get(7L, 110));
+    // reading refreshes the entry
+    assertEquals("a", table.get(7L, 120));
+    assertNull(table.get(7L, 131));
+    assertEquals(0, table.size());
+  }
+}
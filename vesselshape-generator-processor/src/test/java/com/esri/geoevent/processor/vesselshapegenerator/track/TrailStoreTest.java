@@ -0,0 +1,161 @@
+/*
+  Copyright 1995-2018 Esri
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+
+  For additional information, contact:
+  Environmental Systems Research Institute, Inc.
+  Attn: Contracts Dept
+  380 New York Street
+  Redlands, California, USA 92373
+
+  email: contracts@esri.com
+*/
+package com.esri.geoevent.processor.vesselshapegenerator.track;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.esri.core.geometry.Geometry;
+import com.esri.core.geometry.GeometryEngine;
+import com.esri.core.geometry.MapGeometry;
+import com.esri.core.geometry.Polygon;
+import com.esri.core.geometry.SpatialReference;
+import java.util.Random;
+import org.junit.Test;
+
+public class TrailStoreTest {
+
+  private static final SpatialReference SR = SpatialReference.create(102100);
+
+  /**
+   * Creates clockwise square segment.
+   */
+  private static double[] square(double x, double y, double size) {
+    return new double[] {x, y, x, y + size, x + size, y + size, x + size, y};
+  }
+
+  private static Polygon polygon(MapGeometry geometry) {
+    return (Polygon) geometry.getGeometry();
+  }
+
+  @Test
+  public void testFirstSegment() {
+    TrailStore store = new TrailStore(100, 5, 0);
+    double[] pose = {1, 2};
+    Polygon trail = polygon(store.append(1, pose, square(0, 0, 2), 1000, SR, 0));
+    assertEquals(1, trail.getPathCount());
+    assertEquals(4, trail.calculateArea2D(), 1e-9);
+    assertSame(pose, store.getPose(1, 0));
+    assertNull(store.getPose(2, 0));
+    assertNull(store.getGeometry(2, 0));
+  }
+
+  @Test
+  public void testOverlappingSegmentsFormOneRing() {
+    TrailStore store = new TrailStore(100, 5, 0);
+    store.append(1, new double[0], square(0, 0, 2), 1000, SR, 0);
+    store.append(1, new double[0], square(1, 0, 2), 2000, SR, 0);
+    Polygon trail = polygon(store.append(1, new double[0], square(2, 0, 2), 3000, SR, 0));
+    // the union is simple: one ring without the overlaps
+    assertEquals(1, trail.getPathCount());
+    assertEquals(8, trail.calculateArea2D(), 1e-9);
+  }
+
+  @Test
+  public void testRingBufferDropsOldestSegments() {
+    TrailStore store = new TrailStore(100, 2, 0);
+    for (int i = 0; i < 10; i++) {
+      Polygon trail = polygon(store.append(1, new double[0], square(i, 0, 2), 1000 * i, SR, 0));
+      // at most the last two segments
+      assertEquals(i == 0 ? 4 : 6, trail.calculateArea2D(), 1e-9);
+    }
+    // disjoint segments stay separate rings
+    store = new TrailStore(100, 3, 0);
+    store.append(1, new double[0], square(0, 0, 1), 0, SR, 0);
+    store.append(1, new double[0], square(5, 0, 1), 1, SR, 0);
+    Polygon trail = polygon(store.append(1, new double[0], square(10, 0, 1), 2, SR, 0));
+    assertEquals(3, trail.getPathCount());
+    trail = polygon(store.append(1, new double[0], square(15, 0, 1), 3, SR, 0));
+    assertEquals(3, trail.getPathCount());
+  }
+
+  @Test
+  public void testDropsSegmentsOlderThanDuration() {
+    TrailStore store = new TrailStore(100, 10, 5000);
+    store.append(1, new double[0], square(0, 0, 2), 0, SR, 0);
+    store.append(1, new double[0], square(1, 0, 2), 1000, SR, 1000);
+    Polygon trail = polygon(store.append(1, new double[0], square(2, 0, 2), 5500, SR, 5500));
+    // the first segment is older than the duration
+    assertEquals(6, trail.calculateArea2D(), 1e-9);
+  }
+
+  @Test
+  public void testSpatialReferenceChangeRestartsTrail() {
+    TrailStore store = new TrailStore(100, 10, 0);
+    store.append(1, new double[0], square(0, 0, 2), 0, SR, 0);
+    Polygon trail = polygon(store.append(1, new double[0], square(1, 0, 2), 1, SpatialReference.create(4326), 0));
+    assertEquals(4, trail.calculateArea2D(), 1e-9);
+  }
+
+  @Test
+  public void testReturnsCopies() {
+    TrailStore store = new TrailStore(100, 10, 0);
+    Polygon appended = polygon(store.append(1, new double[0], square(0, 0, 2), 0, SR, 0));
+    appended.startPath(10, 10);
+    appended.lineTo(10, 11);
+    appended.lineTo(11, 11);
+    Polygon trail = polygon(store.getGeometry(1, 0));
+    assertEquals(1, trail.getPathCount());
+    trail.startPath(10, 10);
+    assertEquals(1, polygon(store.getGeometry(1, 0)).getPathCount());
+    assertEquals(6, polygon(store.append(1, new double[0], square(1, 0, 2), 1, SR, 0)).calculateArea2D(), 1e-9);
+  }
+
+  @Test
+  public void testSlidingUnionMatchesFullUnion() {
+    int length = 7;
+    TrailStore store = new TrailStore(100, length, 0);
+    Random random = new Random(24);
+    double[][] segments = new double[50][];
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = square(random.nextInt(20), random.nextInt(20), 1 + random.nextInt(4));
+      Polygon trail = polygon(store.append(1, new double[0], segments[i], i, SR, 0));
+      int first = Math.max(0, i - length + 1);
+      Geometry[] parts = new Geometry[i - first + 1];
+      for (int j = first; j <= i; j++) {
+        Polygon part = new Polygon();
+        part.startPath(segments[j][0], segments[j][1]);
+        for (int k = 2; k < segments[j].length; k += 2) {
+          part.lineTo(segments[j][k], segments[j][k + 1]);
+        }
+        parts[j - first] = part;
+      }
+      assertEquals(((Polygon) GeometryEngine.union(parts, SR)).calculateArea2D(), trail.calculateArea2D(), 1e-9);
+    }
+  }
+
+  @Test
+  public void testLateReportIsNotAppended() {
+    TrailStore store = new TrailStore(100, 5, 0);
+    double[] pose = {1, 2};
+    store.append(1, pose, square(0, 0, 2), 2000, SR, 0);
+    Polygon trail = polygon(store.append(1, new double[] {3, 4}, square(10, 0, 2), 1000, SR, 0));
+    assertEquals(4, trail.calculateArea2D(), 1e-9);
+    assertSame(pose, store.getPose(1, 0));
+    // the trail goes on from the newest segment
+    trail = polygon(store.append(1, new double[0], square(1, 0, 2), 3000, SR, 0));
+    assertEquals(6, trail.calculateArea2D(), 1e-9);
+  }
+}